@@ -2,6 +2,8 @@ package com.rednetty;
 
 import com.rednetty.commands.CreatePollCommand;
 import com.rednetty.commands.PollCommand;
+import com.rednetty.commands.PollTabCompleteListener;
+import com.rednetty.poll.FilePollStorage;
 import com.rednetty.poll.PollManager;
 import com.rednetty.poll.PollStorage;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -20,11 +22,31 @@ public class PollPlugin extends JavaPlugin {
         saveDefaultConfig();
 
         // Initialize storage
-        pollStorage = new PollStorage(this);
+        pollStorage = PollStorage.create(this);
         if (!pollStorage.initialize()) {
-            getLogger().severe("Failed to initialize database! Plugin will be disabled.");
-            getServer().getPluginManager().disablePlugin(this);
-            return;
+            pollStorage.close();
+            pollStorage = null;
+
+            // Opt-in only: data written meanwhile stays in the local files and is never synced back
+            if (getConfig().getBoolean("storage.fallback-to-file", false)
+                    && !"file".equalsIgnoreCase(getConfig().getString("storage.type", "mongodb"))) {
+                FilePollStorage fallback = new FilePollStorage(this);
+                if (fallback.initialize()) {
+                    pollStorage = fallback;
+                    getLogger().severe("==========================================================");
+                    getLogger().severe("Database unreachable, FALLING BACK TO LOCAL FILE STORAGE!");
+                    getLogger().severe("Polls and votes from now on are stored in local files only");
+                    getLogger().severe("and will NOT be synced back to the database. Fix the");
+                    getLogger().severe("database connection and restart as soon as possible.");
+                    getLogger().severe("==========================================================");
+                }
+            }
+
+            if (pollStorage == null) {
+                getLogger().severe("Failed to initialize database! Plugin will be disabled.");
+                getServer().getPluginManager().disablePlugin(this);
+                return;
+            }
         }
 
         // Initialize poll manager
@@ -32,13 +54,21 @@ public class PollPlugin extends JavaPlugin {
 
         // Register commands
         getCommand("createpoll").setExecutor(new CreatePollCommand(pollManager));
-        getCommand("poll").setExecutor(new PollCommand(pollManager));
+        PollCommand pollCommand = new PollCommand(pollManager);
+        getCommand("poll").setExecutor(pollCommand);
+
+        // Serve /poll completions asynchronously on Paper
+        getServer().getPluginManager().registerEvents(
+                new PollTabCompleteListener(pollCommand, "poll", "polls", "voting"), this);
 
         getLogger().info("PollPlugin has been enabled!");
     }
 
     @Override
     public void onDisable() {
+        if (pollManager != null) {
+            pollManager.shutdown();
+        }
         if (pollStorage != null) {
             pollStorage.close();
         }
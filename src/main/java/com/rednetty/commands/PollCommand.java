@@ -2,6 +2,7 @@ package com.rednetty.commands;
 
 import com.rednetty.gui.ClosedPollsMenu;
 import com.rednetty.gui.PollListMenu;
+import com.rednetty.menu.Menu;
 import com.rednetty.poll.Poll;
 import com.rednetty.poll.PollManager;
 import org.bukkit.ChatColor;
@@ -14,9 +15,12 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class PollCommand implements CommandExecutor, TabCompleter {
+    private static final int MAX_ID_COMPLETIONS = 50;
+    private static final String STATS_PERMISSION = "poll.admin";
     private final PollManager pollManager;
 
     public PollCommand(PollManager pollManager) {
@@ -56,6 +60,8 @@ public class PollCommand implements CommandExecutor, TabCompleter {
                 return true;
             case "results":
                 return handleShowResults(player, args);
+            case "stats":
+                return handleShowStats(player);
             case "help":
                 sendHelpMessage(player);
                 return true;
@@ -85,28 +91,30 @@ public class PollCommand implements CommandExecutor, TabCompleter {
         }
 
         String pollId = args[1];
-        Poll poll = pollManager.getPoll(pollId);
-
-        if (poll == null) {
-            player.sendMessage(ChatColor.RED + "Poll not found or already closed!");
-            return true;
-        }
+        pollManager.getPollAsync(pollId).thenAccept(poll -> {
+            if (poll == null) {
+                sendPollNotFound(player, pollId, "Poll not found or already closed!");
+                return;
+            }
 
-        if (!pollManager.canClosePoll(player, poll)) {
-            player.sendMessage(ChatColor.RED + "You don't have permission to close this poll!");
-            player.sendMessage(ChatColor.GRAY + "You can only close polls you created or have poll.close permission.");
-            return true;
-        }
+            if (!pollManager.canClosePoll(player, poll)) {
+                player.sendMessage(ChatColor.RED + "You don't have permission to close this poll!");
+                player.sendMessage(ChatColor.GRAY + "You can only close polls you created or have poll.close permission.");
+                return;
+            }
 
-        if (pollManager.closePoll(poll.getPollUUID())) {
-            player.sendMessage(ChatColor.GREEN + "Poll closed successfully!");
-            player.sendMessage(ChatColor.GRAY + "Question: " + poll.getQuestion());
+            pollManager.closePollAsync(poll.getPollUUID()).thenAccept(closed -> {
+                if (closed) {
+                    player.sendMessage(ChatColor.GREEN + "Poll closed successfully!");
+                    player.sendMessage(ChatColor.GRAY + "Question: " + poll.getQuestion());
 
-            // Show final results
-            showPollResults(player, poll);
-        } else {
-            player.sendMessage(ChatColor.RED + "Failed to close the poll. Please try again.");
-        }
+                    // Show final results
+                    showPollResults(player, poll);
+                } else {
+                    player.sendMessage(ChatColor.RED + "Failed to close the poll. Please try again.");
+                }
+            });
+        });
 
         return true;
     }
@@ -118,28 +126,38 @@ public class PollCommand implements CommandExecutor, TabCompleter {
         }
 
         String pollId = args[1];
-        Poll poll = pollManager.getPoll(pollId);
+        pollManager.getPollAsync(pollId).thenAccept(poll -> {
+            if (poll == null) {
+                sendPollNotFound(player, pollId, "Poll not found!");
+                return;
+            }
 
-        if (poll == null) {
-            player.sendMessage(ChatColor.RED + "Poll not found!");
-            return true;
-        }
+            if (!pollManager.canRemovePoll(player, poll)) {
+                player.sendMessage(ChatColor.RED + "You don't have permission to remove this poll!");
+                player.sendMessage(ChatColor.GRAY + "You can only remove polls you created or have poll.remove permission.");
+                return;
+            }
 
-        if (!pollManager.canRemovePoll(player, poll)) {
-            player.sendMessage(ChatColor.RED + "You don't have permission to remove this poll!");
-            player.sendMessage(ChatColor.GRAY + "You can only remove polls you created or have poll.remove permission.");
-            return true;
-        }
+            String question = poll.getQuestion();
+            pollManager.removePollAsync(poll.getPollUUID()).thenAccept(removed -> {
+                if (removed) {
+                    player.sendMessage(ChatColor.GREEN + "Poll removed successfully!");
+                    player.sendMessage(ChatColor.GRAY + "Question: " + question);
+                } else {
+                    player.sendMessage(ChatColor.RED + "Failed to remove the poll. Please try again.");
+                }
+            });
+        });
+
+        return true;
+    }
 
-        String question = poll.getQuestion();
-        if (pollManager.removePoll(poll.getPollUUID())) {
-            player.sendMessage(ChatColor.GREEN + "Poll removed successfully!");
-            player.sendMessage(ChatColor.GRAY + "Question: " + question);
+    private void sendPollNotFound(Player player, String pollId, String message) {
+        if (pollManager.isAmbiguousPollId(pollId)) {
+            player.sendMessage(ChatColor.RED + "More than one poll matches that ID, please use more characters!");
         } else {
-            player.sendMessage(ChatColor.RED + "Failed to remove the poll. Please try again.");
+            player.sendMessage(ChatColor.RED + message);
         }
-
-        return true;
     }
 
     private void showPollResults(Player player, Poll poll) {
@@ -158,15 +176,15 @@ public class PollCommand implements CommandExecutor, TabCompleter {
         }
     }
     private void openClosedPollsGUI(Player player) {
-        List<Poll> closedPolls = pollManager.getClosedPolls();
-
-        if (closedPolls.isEmpty()) {
-            player.sendMessage(ChatColor.YELLOW + "There are no closed polls to view.");
-            return;
-        }
+        pollManager.getClosedPollCountAsync().thenAccept(count -> {
+            if (count == 0) {
+                player.sendMessage(ChatColor.YELLOW + "There are no closed polls to view.");
+                return;
+            }
 
-        ClosedPollsMenu menu = new ClosedPollsMenu(player, pollManager);
-        menu.open();
+            ClosedPollsMenu menu = new ClosedPollsMenu(player, pollManager);
+            menu.open();
+        });
     }
 
     private boolean handleShowResults(Player player, String[] args) {
@@ -176,16 +194,54 @@ public class PollCommand implements CommandExecutor, TabCompleter {
         }
 
         String pollId = args[1];
-        Poll poll = pollManager.getPoll(pollId);
+        pollManager.getPollAsync(pollId).thenAccept(poll -> {
+            if (poll == null) {
+                sendPollNotFound(player, pollId, "Poll not found!");
+                return;
+            }
 
-        if (poll == null) {
-            player.sendMessage(ChatColor.RED + "Poll not found!");
+            showPollResults(player, poll);
+        });
+        return true;
+    }
+    private boolean handleShowStats(Player player) {
+        if (!pollManager.hasPermission(player, STATS_PERMISSION)) {
+            player.sendMessage(ChatColor.RED + "You don't have permission to view poll statistics!");
             return true;
         }
 
-        showPollResults(player, poll);
+        sendStatistics(player, "Vote Queue", pollManager.getVoteQueueStatistics());
+        sendStatistics(player, "Vote Journal", pollManager.getVoteJournalStatistics());
+        sendStatistics(player, "Closed Poll Cache", pollManager.getClosedPollCacheStatistics());
+        sendStatistics(player, "Load Coalescing", pollManager.getLoadCoalescingStatistics());
+        sendStatistics(player, "Menus", Menu.getStatistics());
         return true;
     }
+
+    private void sendStatistics(Player player, String title, Map<String, Object> stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+
+        player.sendMessage(ChatColor.GOLD + "=== " + title + " ===");
+        for (Map.Entry<String, Object> entry : stats.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                continue; // Shown as its own section below
+            }
+            String text = value instanceof Double ? String.format("%.2f", (Double) value) : String.valueOf(value);
+            player.sendMessage(ChatColor.YELLOW + entry.getKey() + ChatColor.GRAY + ": " + ChatColor.WHITE + text);
+        }
+
+        for (Map.Entry<String, Object> entry : stats.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> nested = (Map<String, Object>) entry.getValue();
+                sendStatistics(player, title + " " + entry.getKey(), nested);
+            }
+        }
+    }
+
     private void sendHelpMessage(Player player) {
         player.sendMessage(ChatColor.GOLD + "=== Poll Commands ===");
         player.sendMessage(ChatColor.YELLOW + "/poll" + ChatColor.GRAY + " - Open the poll list GUI");
@@ -194,16 +250,30 @@ public class PollCommand implements CommandExecutor, TabCompleter {
         player.sendMessage(ChatColor.YELLOW + "/poll results <pollId>" + ChatColor.GRAY + " - Show poll results");
         player.sendMessage(ChatColor.YELLOW + "/poll close <pollId>" + ChatColor.GRAY + " - Close a poll");
         player.sendMessage(ChatColor.YELLOW + "/poll remove <pollId>" + ChatColor.GRAY + " - Remove a poll");
+        if (pollManager.hasPermission(player, STATS_PERMISSION)) {
+            player.sendMessage(ChatColor.YELLOW + "/poll stats" + ChatColor.GRAY + " - Show storage and menu statistics");
+        }
         player.sendMessage(ChatColor.YELLOW + "/createpoll <duration> <question>" + ChatColor.GRAY + " - Create a new poll");
         player.sendMessage(ChatColor.GRAY + "Duration examples: 1d, 5h, 30m");
     }
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        return complete(sender, args);
+    }
+
+    /**
+     * Completions for the given arguments. Only reads in-memory state, so it is shared
+     * with the async tab-complete listener.
+     */
+    List<String> complete(CommandSender sender, String[] args) {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            List<String> subCommands = Arrays.asList("close", "remove", "list", "closed", "results", "help");
+            List<String> subCommands = new ArrayList<>(Arrays.asList("close", "remove", "list", "closed", "results", "help"));
+            if (sender.hasPermission(STATS_PERMISSION)) {
+                subCommands.add("stats");
+            }
             String input = args[0].toLowerCase();
             for (String subCommand : subCommands) {
                 if (subCommand.startsWith(input)) {
@@ -212,17 +282,15 @@ public class PollCommand implements CommandExecutor, TabCompleter {
             }
         } else if (args.length == 2) {
             String subCommand = args[0].toLowerCase();
-            if (subCommand.equals("close") || subCommand.equals("remove") ||
-                    subCommand.equals("delete") || subCommand.equals("results")) {
+            if (subCommand.equals("close")) {
+                // Only open polls can be closed
+                completions.addAll(pollManager.getPollIdCompletions(args[1], true, MAX_ID_COMPLETIONS));
+            } else if (subCommand.equals("remove") || subCommand.equals("delete") || subCommand.equals("results")) {
                 // Suggest poll IDs (first 8 characters of UUID for readability)
-                List<Poll> allPolls = pollManager.getAllPolls();
-                for (Poll poll : allPolls) {
-                    String shortId = poll.getPollUUID().toString().substring(0, 8);
-                    completions.add(shortId);
-                }
+                completions.addAll(pollManager.getPollIdCompletions(args[1], false, MAX_ID_COMPLETIONS));
             }
         }
 
         return completions;
     }
-}
\ No newline at end of file
+}
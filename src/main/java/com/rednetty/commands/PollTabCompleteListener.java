@@ -0,0 +1,66 @@
+package com.rednetty.commands;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Answers /poll tab completion on Paper's async tab-complete thread, so suggestions are
+ * computed off the main thread. Completions come from {@link PollCommand#complete(CommandSender, String[])},
+ * which only reads in-memory state; the synchronous onTabComplete remains as a fallback.
+ */
+public class PollTabCompleteListener implements Listener {
+    private static final String NAMESPACE = "pollplugin:";
+    private static final String PERMISSION = "poll.use";
+
+    private final PollCommand pollCommand;
+    private final Set<String> labels;
+
+    public PollTabCompleteListener(PollCommand pollCommand, String... labels) {
+        this.pollCommand = pollCommand;
+        this.labels = new HashSet<>(Arrays.asList(labels));
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (event.isHandled() || !event.isCommand()) {
+            return;
+        }
+
+        String buffer = event.getBuffer();
+        if (buffer.startsWith("/")) {
+            buffer = buffer.substring(1);
+        }
+
+        int firstSpace = buffer.indexOf(' ');
+        if (firstSpace < 0) {
+            return; // Still typing the command itself
+        }
+
+        String label = buffer.substring(0, firstSpace).toLowerCase(Locale.ROOT);
+        if (label.startsWith(NAMESPACE)) {
+            label = label.substring(NAMESPACE.length());
+        }
+        if (!labels.contains(label)) {
+            return;
+        }
+
+        // Left unhandled, so the synchronous path applies its own command permission check
+        if (!event.getSender().hasPermission(PERMISSION)) {
+            return;
+        }
+
+        // Keep a trailing empty argument so "/poll close " completes the ID
+        String[] args = buffer.substring(firstSpace + 1).split(" ", -1);
+        List<String> completions = pollCommand.complete(event.getSender(), args);
+        event.setCompletions(completions);
+        event.setHandled(true);
+    }
+}
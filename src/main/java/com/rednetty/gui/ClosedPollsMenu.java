@@ -2,12 +2,16 @@ package com.rednetty.gui;
 
 import com.rednetty.menu.Menu;
 import com.rednetty.menu.MenuItem;
+import com.rednetty.menu.MenuItems;
 import com.rednetty.poll.Poll;
 import com.rednetty.poll.PollManager;
+import com.rednetty.poll.PollPage;
+import com.rednetty.poll.PollSummary;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +19,8 @@ public class ClosedPollsMenu extends Menu {
     private final PollManager pollManager;
     private int currentPage = 0;
     private final int pollsPerPage = 28; // 7x4 grid for polls
+    // Pages loaded so far, so paging back does not query again; cleared on refresh
+    private final Map<Integer, PollPage> loadedPages = new HashMap<>();
 
     public ClosedPollsMenu(Player player, PollManager pollManager) {
         super(player, ChatColor.DARK_RED + "Closed Polls", 54);
@@ -32,16 +38,65 @@ public class ClosedPollsMenu extends Menu {
     private void setupMenu() {
         createBorder();
 
-        List<Poll> closedPolls = pollManager.getClosedPolls();
+        // Back to active polls
+        setItem(46, PollMenuItems.BACK_TO_ACTIVE, (p, slot) -> {
+            PollListMenu pollList = new PollListMenu(p, pollManager);
+            pollList.open();
+        });
+
+        // Refresh button
+        setItem(49, PollMenuItems.REFRESH_LIST, (p, slot) -> {
+            loadedPages.clear();
+            redraw(this::setupMenu);
+            p.sendMessage(ChatColor.GREEN + "Poll list refreshed!");
+        });
+
+        PollPage loaded = loadedPages.get(currentPage);
+        if (loaded != null) {
+            showPage(loaded);
+            return;
+        }
+
+        // The page is loaded off the main thread; show a placeholder until it arrives
+        setItem(4, new MenuItem(Material.PAPER, ChatColor.GOLD + "Closed Poll History")
+                .addLoreLine(ChatColor.GRAY + "Loading..."));
+        setLoading(22);
+
+        int page = currentPage;
+        int redraws = getRedrawCount();
+        pollManager.getClosedPollPageAsync(page, pollsPerPage, player.getUniqueId())
+                .thenAccept(closedPolls -> {
+                    loadedPages.put(page, closedPolls);
+                    if (getRedrawCount() == redraws) {
+                        showPage(closedPolls);
+                    }
+                })
+                .exceptionally(error -> {
+                    if (getRedrawCount() == redraws) {
+                        setLoadFailed(22);
+                    }
+                    return null;
+                });
+    }
 
-        // Calculate pagination
-        int totalPages = (int) Math.ceil((double) closedPolls.size() / pollsPerPage);
-        int startIndex = currentPage * pollsPerPage;
-        int endIndex = Math.min(startIndex + pollsPerPage, closedPolls.size());
+    /**
+     * Flips to another page in place, reusing pages that were already loaded
+     */
+    private void goToPage(int page) {
+        currentPage = page;
+        redraw(this::setupMenu);
+    }
+
+    private void showPage(PollPage closedPolls) {
+        removeItem(22);
+
+        // Only the current page is loaded, without votes; totals come from the server
+        List<PollSummary> pagePolls = closedPolls.getItems();
+        int totalPages = closedPolls.getTotalPages();
 
         // Header info
         setItem(4, new MenuItem(Material.PAPER, ChatColor.GOLD + "Closed Poll History")
-                .addLoreLine(ChatColor.GRAY + "Total Closed Polls: " + ChatColor.WHITE + closedPolls.size())
+                .addLoreLine(ChatColor.GRAY + "Total Closed Polls: " + ChatColor.WHITE + closedPolls.getTotalCount())
                 .addLoreLine(ChatColor.GRAY + "Page: " + ChatColor.WHITE + (currentPage + 1) + "/" + Math.max(1, totalPages))
                 .addLoreLine("")
                 .addLoreLine(ChatColor.YELLOW + "Click on a poll to view results!"));
@@ -54,9 +109,8 @@ public class ClosedPollsMenu extends Menu {
                 37, 38, 39, 40, 41, 42, 43
         };
 
-        for (int i = startIndex; i < endIndex; i++) {
-            Poll poll = closedPolls.get(i);
-            int slotIndex = i - startIndex;
+        for (int slotIndex = 0; slotIndex < pagePolls.size(); slotIndex++) {
+            PollSummary poll = pagePolls.get(slotIndex);
 
             if (slotIndex < pollSlots.length) {
                 int slot = pollSlots[slotIndex];
@@ -71,12 +125,9 @@ public class ClosedPollsMenu extends Menu {
 
                 // Show results summary
                 if (poll.getTotalVotes() > 0) {
-                    Map<String, Integer> results = poll.getResults();
-                    String topOption = results.entrySet().stream()
-                            .max(Map.Entry.comparingByValue())
-                            .map(Map.Entry::getKey)
-                            .orElse("None");
-                    int topVotes = results.getOrDefault(topOption, 0);
+                    String winningOption = poll.getWinningOption();
+                    String topOption = winningOption != null ? winningOption : "None";
+                    int topVotes = poll.getVotesForOption(winningOption);
                     double topPercentage = (double) topVotes / poll.getTotalVotes() * 100;
 
                     pollItem.addLoreLine(ChatColor.GREEN + "Winner: " + ChatColor.WHITE + topOption)
@@ -86,8 +137,8 @@ public class ClosedPollsMenu extends Menu {
                     pollItem.addLoreLine(ChatColor.GRAY + "No votes were cast");
                 }
 
-                if (poll.hasVoted(player.getUniqueId())) {
-                    String votedOption = poll.getVotes().get(player.getUniqueId());
+                String votedOption = poll.getViewerVote();
+                if (votedOption != null) {
                     pollItem.addLoreLine(ChatColor.AQUA + "You voted: " + ChatColor.WHITE + votedOption);
                 }
 
@@ -96,8 +147,16 @@ public class ClosedPollsMenu extends Menu {
                         .addLoreLine(ChatColor.GRAY + "ID: " + poll.getPollUUID().toString().substring(0, 8));
 
                 pollItem.setClickHandler((p, clickedSlot) -> {
-                    PollResultsMenu resultsMenu = new PollResultsMenu(p, poll, pollManager);
-                    resultsMenu.open();
+                    // Load the full poll, with its votes, only when it is opened
+                    pollManager.getPollAsync(poll.getPollUUID()).thenAccept(fullPoll -> {
+                        if (fullPoll == null) {
+                            p.sendMessage(ChatColor.RED + "This poll no longer exists!");
+                            return;
+                        }
+
+                        PollResultsMenu resultsMenu = new PollResultsMenu(p, fullPoll, pollManager);
+                        resultsMenu.open();
+                    });
                 });
 
                 setItem(slot, pollItem);
@@ -106,53 +165,21 @@ public class ClosedPollsMenu extends Menu {
 
         // Navigation buttons
         if (currentPage > 0) {
-            setItem(45, new MenuItem(Material.ARROW, ChatColor.GREEN + "Previous Page")
-                    .addLoreLine(ChatColor.GRAY + "Go to page " + currentPage)
-                    .setClickHandler((p, slot) -> {
-                        ClosedPollsMenu prevPage = new ClosedPollsMenu(p, pollManager, currentPage - 1);
-                        prevPage.open();
-                    }));
+            setItem(45, MenuItems.previousPage(currentPage), (p, slot) -> goToPage(currentPage - 1));
         }
 
         if (currentPage < totalPages - 1) {
-            setItem(53, new MenuItem(Material.ARROW, ChatColor.GREEN + "Next Page")
-                    .addLoreLine(ChatColor.GRAY + "Go to page " + (currentPage + 2))
-                    .setClickHandler((p, slot) -> {
-                        ClosedPollsMenu nextPage = new ClosedPollsMenu(p, pollManager, currentPage + 1);
-                        nextPage.open();
-                    }));
+            setItem(53, MenuItems.nextPage(currentPage + 2), (p, slot) -> goToPage(currentPage + 1));
         }
 
-        // Back to active polls
-        setItem(46, new MenuItem(Material.BOOK, ChatColor.YELLOW + "Back to Active Polls")
-                .addLoreLine(ChatColor.GRAY + "Return to the active poll list")
-                .setClickHandler((p, slot) -> {
-                    PollListMenu pollList = new PollListMenu(p, pollManager);
-                    pollList.open();
-                }));
-
-        // Refresh button
-        setItem(49, new MenuItem(Material.CLOCK, ChatColor.YELLOW + "Refresh")
-                .addLoreLine(ChatColor.GRAY + "Update poll list")
-                .setClickHandler((p, slot) -> {
-                    ClosedPollsMenu refreshed = new ClosedPollsMenu(p, pollManager, currentPage);
-                    refreshed.open();
-                    p.sendMessage(ChatColor.GREEN + "Poll list refreshed!");
-                }));
-
         // Statistics
-        if (!closedPolls.isEmpty()) {
-            int totalVotes = closedPolls.stream().mapToInt(Poll::getTotalVotes).sum();
-
+        if (closedPolls.getTotalCount() > 0) {
             setItem(52, new MenuItem(Material.WRITABLE_BOOK, ChatColor.AQUA + "Statistics")
-                    .addLoreLine(ChatColor.GRAY + "Closed polls: " + ChatColor.WHITE + closedPolls.size())
-                    .addLoreLine(ChatColor.GRAY + "Total votes cast: " + ChatColor.WHITE + totalVotes)
-                    .addLoreLine(ChatColor.GRAY + "Average votes per poll: " + ChatColor.WHITE +
-                            String.format("%.1f", totalVotes / (double) closedPolls.size())));
+                    .addLoreLine(ChatColor.GRAY + "Closed polls: " + ChatColor.WHITE + closedPolls.getTotalCount()));
         }
 
         // Empty state
-        if (closedPolls.isEmpty()) {
+        if (closedPolls.getTotalCount() == 0) {
             setItem(22, new MenuItem(Material.BARRIER, ChatColor.RED + "No Closed Polls")
                     .addLoreLine(ChatColor.GRAY + "There are no closed polls to view.")
                     .addLoreLine("")
@@ -161,7 +188,7 @@ public class ClosedPollsMenu extends Menu {
         }
     }
 
-    private Material getClosedPollMaterial(Poll poll) {
+    private Material getClosedPollMaterial(PollSummary poll) {
         int votes = poll.getTotalVotes();
         if (votes == 0) {
             return Material.GRAY_STAINED_GLASS; // No votes
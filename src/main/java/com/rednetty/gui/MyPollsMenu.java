@@ -2,18 +2,26 @@ package com.rednetty.gui;
 
 import com.rednetty.menu.Menu;
 import com.rednetty.menu.MenuItem;
-import com.rednetty.poll.Poll;
+import com.rednetty.menu.MenuItems;
 import com.rednetty.poll.PollManager;
+import com.rednetty.poll.PollPage;
+import com.rednetty.poll.PollSummary;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class MyPollsMenu extends Menu {
     private final PollManager pollManager;
     private int currentPage = 0;
     private final int pollsPerPage = 21; // 7x3 grid for polls
+    // Pages and the closed count loaded so far, so paging back does not query again; cleared on refresh
+    private final Map<Integer, PollPage> loadedPages = new HashMap<>();
+    private Long closedCount;
 
     public MyPollsMenu(Player player, PollManager pollManager) {
         super(player, ChatColor.LIGHT_PURPLE + "My Polls", 54);
@@ -31,16 +39,75 @@ public class MyPollsMenu extends Menu {
     private void setupMenu() {
         createBorder();
 
-        List<Poll> myPolls = pollManager.getPollsByCreator(player.getUniqueId());
+        // Action buttons
+        setItem(46, PollMenuItems.BACK_TO_ALL, (p, slot) -> {
+            PollListMenu pollList = new PollListMenu(p, pollManager);
+            pollList.open();
+        });
+
+        setItem(49, PollMenuItems.REFRESH_LIST, (p, slot) -> {
+            loadedPages.clear();
+            closedCount = null;
+            redraw(this::setupMenu);
+            p.sendMessage(ChatColor.GREEN + "Poll list refreshed!");
+        });
+
+        setItem(52, PollMenuItems.CREATE_POLL, (p, slot) -> {
+            close();
+            p.sendMessage(ChatColor.YELLOW + "Use the command: " + ChatColor.WHITE + "/createpoll <duration> <question>");
+            p.sendMessage(ChatColor.GRAY + "Example: " + ChatColor.WHITE + "/createpoll 1d Should we have a server event?");
+        });
+
+        PollPage loaded = loadedPages.get(currentPage);
+        if (loaded != null && closedCount != null) {
+            showPage(loaded, closedCount);
+            return;
+        }
+
+        // The page and counts are loaded off the main thread; show a placeholder until they arrive
+        setItem(4, new MenuItem(Material.PLAYER_HEAD, ChatColor.GOLD + "Your Poll Statistics")
+                .addLoreLine(ChatColor.GRAY + "Loading..."));
+        setLoading(22);
+
+        int page = currentPage;
+        int redraws = getRedrawCount();
+        CompletableFuture<Long> closedCountFuture = closedCount != null
+                ? CompletableFuture.completedFuture(closedCount)
+                : pollManager.getClosedPollCountByCreatorAsync(player.getUniqueId());
+        pollManager.getPollPageByCreatorAsync(player.getUniqueId(), page, pollsPerPage)
+                .thenAcceptBoth(closedCountFuture, (myPolls, closed) -> {
+                    loadedPages.put(page, myPolls);
+                    closedCount = closed;
+                    if (getRedrawCount() == redraws) {
+                        showPage(myPolls, closed);
+                    }
+                })
+                .exceptionally(error -> {
+                    if (getRedrawCount() == redraws) {
+                        setLoadFailed(22);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Flips to another page in place, reusing pages that were already loaded
+     */
+    private void goToPage(int page) {
+        currentPage = page;
+        redraw(this::setupMenu);
+    }
+
+    private void showPage(PollPage myPolls, long closedCount) {
+        removeItem(22);
 
-        // Calculate pagination
-        int totalPages = (int) Math.ceil((double) myPolls.size() / pollsPerPage);
-        int startIndex = currentPage * pollsPerPage;
-        int endIndex = Math.min(startIndex + pollsPerPage, myPolls.size());
+        // Only the current page is loaded, without votes; totals come from the server
+        List<PollSummary> pagePolls = myPolls.getItems();
+        int totalPages = myPolls.getTotalPages();
 
         // Header info
         setItem(4, new MenuItem(Material.PLAYER_HEAD, ChatColor.GOLD + "Your Poll Statistics")
-                .addLoreLine(ChatColor.GRAY + "Total Polls Created: " + ChatColor.WHITE + myPolls.size())
+                .addLoreLine(ChatColor.GRAY + "Total Polls Created: " + ChatColor.WHITE + myPolls.getTotalCount())
                 .addLoreLine(ChatColor.GRAY + "Page: " + ChatColor.WHITE + (currentPage + 1) + "/" + Math.max(1, totalPages))
                 .addLoreLine("")
                 .addLoreLine(ChatColor.YELLOW + "Click on a poll to manage it"));
@@ -52,9 +119,8 @@ public class MyPollsMenu extends Menu {
                 37, 38, 39, 40, 41, 42, 43
         };
 
-        for (int i = startIndex; i < endIndex; i++) {
-            Poll poll = myPolls.get(i);
-            int slotIndex = i - startIndex;
+        for (int slotIndex = 0; slotIndex < pagePolls.size(); slotIndex++) {
+            PollSummary poll = pagePolls.get(slotIndex);
 
             if (slotIndex < pollSlots.length) {
                 int slot = pollSlots[slotIndex];
@@ -86,65 +152,23 @@ public class MyPollsMenu extends Menu {
 
         // Navigation buttons
         if (currentPage > 0) {
-            setItem(45, new MenuItem(Material.ARROW, ChatColor.GREEN + "Previous Page")
-                    .addLoreLine(ChatColor.GRAY + "Go to page " + currentPage)
-                    .setClickHandler((p, slot) -> {
-                        MyPollsMenu prevPage = new MyPollsMenu(p, pollManager, currentPage - 1);
-                        prevPage.open();
-                    }));
+            setItem(45, MenuItems.previousPage(currentPage), (p, slot) -> goToPage(currentPage - 1));
         }
 
         if (currentPage < totalPages - 1) {
-            setItem(53, new MenuItem(Material.ARROW, ChatColor.GREEN + "Next Page")
-                    .addLoreLine(ChatColor.GRAY + "Go to page " + (currentPage + 2))
-                    .setClickHandler((p, slot) -> {
-                        MyPollsMenu nextPage = new MyPollsMenu(p, pollManager, currentPage + 1);
-                        nextPage.open();
-                    }));
+            setItem(53, MenuItems.nextPage(currentPage + 2), (p, slot) -> goToPage(currentPage + 1));
         }
 
-        // Action buttons
-        setItem(46, new MenuItem(Material.BOOK, ChatColor.YELLOW + "Back to All Polls")
-                .addLoreLine(ChatColor.GRAY + "Return to the main poll list")
-                .setClickHandler((p, slot) -> {
-                    PollListMenu pollList = new PollListMenu(p, pollManager);
-                    pollList.open();
-                }));
-
-        setItem(49, new MenuItem(Material.CLOCK, ChatColor.YELLOW + "Refresh")
-                .addLoreLine(ChatColor.GRAY + "Update poll list")
-                .setClickHandler((p, slot) -> {
-                    MyPollsMenu refreshed = new MyPollsMenu(p, pollManager, currentPage);
-                    refreshed.open();
-                    p.sendMessage(ChatColor.GREEN + "Poll list refreshed!");
-                }));
-
-        setItem(52, new MenuItem(Material.EMERALD, ChatColor.GREEN + "Create New Poll")
-                .addLoreLine(ChatColor.GRAY + "Start creating a new poll")
-                .addLoreLine("")
-                .addLoreLine(ChatColor.YELLOW + "Use: /createpoll <duration> <question>")
-                .setClickHandler((p, slot) -> {
-                    close();
-                    p.sendMessage(ChatColor.YELLOW + "Use the command: " + ChatColor.WHITE + "/createpoll <duration> <question>");
-                    p.sendMessage(ChatColor.GRAY + "Example: " + ChatColor.WHITE + "/createpoll 1d Should we have a server event?");
-                }));
-
         // Statistics and summary
-        if (!myPolls.isEmpty()) {
-            int activeCount = (int) myPolls.stream().filter(Poll::isActive).count();
-            int totalVotes = myPolls.stream().mapToInt(Poll::getTotalVotes).sum();
-
+        if (myPolls.getTotalCount() > 0) {
             setItem(47, new MenuItem(Material.WRITABLE_BOOK, ChatColor.AQUA + "Statistics")
-                    .addLoreLine(ChatColor.GRAY + "Active polls: " + ChatColor.WHITE + activeCount)
-                    .addLoreLine(ChatColor.GRAY + "Closed polls: " + ChatColor.WHITE + (myPolls.size() - activeCount))
-                    .addLoreLine(ChatColor.GRAY + "Total votes received: " + ChatColor.WHITE + totalVotes)
-                    .addLoreLine("")
-                    .addLoreLine(ChatColor.YELLOW + "Average votes per poll: " + ChatColor.WHITE +
-                            String.format("%.1f", totalVotes / (double) myPolls.size())));
+                    .addLoreLine(ChatColor.GRAY + "Total polls: " + ChatColor.WHITE + myPolls.getTotalCount())
+                    .addLoreLine(ChatColor.GRAY + "Active polls: " + ChatColor.WHITE + (myPolls.getTotalCount() - closedCount))
+                    .addLoreLine(ChatColor.GRAY + "Closed polls: " + ChatColor.WHITE + closedCount));
         }
 
         // Empty state
-        if (myPolls.isEmpty()) {
+        if (myPolls.getTotalCount() == 0) {
             setItem(22, new MenuItem(Material.BARRIER, ChatColor.RED + "No Polls Created")
                     .addLoreLine(ChatColor.GRAY + "You haven't created any polls yet.")
                     .addLoreLine("")
@@ -156,13 +180,21 @@ public class MyPollsMenu extends Menu {
         }
     }
 
-    private void openPollManagement(Poll poll) {
-        // Open the poll voting menu where they can also manage it
-        PollVotingMenu managementMenu = new PollVotingMenu(player, poll, pollManager, false);
-        managementMenu.open();
+    private void openPollManagement(PollSummary summary) {
+        // Load the full poll, with its votes, only when it is opened
+        pollManager.getPollAsync(summary.getPollUUID()).thenAccept(poll -> {
+            if (poll == null) {
+                player.sendMessage(ChatColor.RED + "This poll no longer exists!");
+                return;
+            }
+
+            // Open the poll voting menu where they can also manage it
+            PollVotingMenu managementMenu = new PollVotingMenu(player, poll, pollManager, false);
+            managementMenu.open();
+        });
     }
 
-    private Material getPollStatusMaterial(Poll poll) {
+    private Material getPollStatusMaterial(PollSummary poll) {
         if (poll.isActive()) {
             int votes = poll.getTotalVotes();
             if (votes == 0) {
@@ -177,7 +209,7 @@ public class MyPollsMenu extends Menu {
         }
     }
 
-    private String getStatusText(Poll poll) {
+    private String getStatusText(PollSummary poll) {
         if (poll.isActive()) {
             return ChatColor.GREEN + "Active";
         } else {
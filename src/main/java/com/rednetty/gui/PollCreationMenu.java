@@ -176,14 +176,16 @@ public class PollCreationMenu extends Menu {
             return;
         }
 
-        if (pollManager.savePoll(poll)) {
-            player.sendMessage(ChatColor.GREEN + "Poll created successfully!");
-            player.sendMessage(ChatColor.GRAY + "Poll ID: " + ChatColor.WHITE + poll.getPollUUID().toString().substring(0, 8));
-            player.sendMessage(ChatColor.GRAY + "Players can now vote using " + ChatColor.YELLOW + "/poll");
-            close();
-        } else {
-            player.sendMessage(ChatColor.RED + "Failed to create poll. Please try again.");
-        }
+        pollManager.savePollAsync(poll).thenAccept(saved -> {
+            if (saved) {
+                player.sendMessage(ChatColor.GREEN + "Poll created successfully!");
+                player.sendMessage(ChatColor.GRAY + "Poll ID: " + ChatColor.WHITE + poll.getPollUUID().toString().substring(0, 8));
+                player.sendMessage(ChatColor.GRAY + "Players can now vote using " + ChatColor.YELLOW + "/poll");
+                close();
+            } else {
+                player.sendMessage(ChatColor.RED + "Failed to create poll. Please try again.");
+            }
+        });
     }
 
     private void previewPoll() {
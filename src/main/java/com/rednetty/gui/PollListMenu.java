@@ -2,6 +2,7 @@ package com.rednetty.gui;
 
 import com.rednetty.menu.Menu;
 import com.rednetty.menu.MenuItem;
+import com.rednetty.menu.MenuItems;
 import com.rednetty.poll.Poll;
 import com.rednetty.poll.PollManager;
 import org.bukkit.ChatColor;
@@ -14,11 +15,14 @@ public class PollListMenu extends Menu {
     private final PollManager pollManager;
     private int currentPage = 0;
     private final int pollsPerPage = 28; // 7x4 grid for polls
+    // Polls shown across pages, kept while paging and reloaded on refresh
+    private List<Poll> activePolls;
 
     public PollListMenu(Player player, PollManager pollManager) {
         super(player, ChatColor.DARK_BLUE + "Active Polls", 54);
         this.pollManager = pollManager;
         setupMenu();
+        PollMenus.enableAutoRefresh(this);
     }
 
     public PollListMenu(Player player, PollManager pollManager, int page) {
@@ -26,15 +30,30 @@ public class PollListMenu extends Menu {
         this.pollManager = pollManager;
         this.currentPage = page;
         setupMenu();
+        PollMenus.enableAutoRefresh(this);
+    }
+
+    @Override
+    protected void onRefresh() {
+        activePolls = null;
+        redraw(this::setupMenu);
+    }
+
+    @Override
+    protected long getDataVersion() {
+        return PollMenus.dataVersion(pollManager);
     }
 
     private void setupMenu() {
         createBorder();
 
-        List<Poll> activePolls = pollManager.getActivePolls();
+        if (activePolls == null) {
+            activePolls = pollManager.getActivePolls();
+        }
 
         // Calculate pagination
         int totalPages = (int) Math.ceil((double) activePolls.size() / pollsPerPage);
+        currentPage = Math.max(0, Math.min(currentPage, totalPages - 1)); // The list may have shrunk on refresh
         int startIndex = currentPage * pollsPerPage;
         int endIndex = Math.min(startIndex + pollsPerPage, activePolls.size());
 
@@ -69,7 +88,7 @@ public class PollListMenu extends Menu {
                         .addLoreLine("");
 
                 if (poll.hasVoted(player.getUniqueId())) {
-                    String votedOption = poll.getVotes().get(player.getUniqueId());
+                    String votedOption = poll.getPlayerVote(player.getUniqueId());
                     pollItem.addLoreLine(ChatColor.GREEN + "✓ You voted: " + ChatColor.WHITE + votedOption);
                     pollItem.addLoreLine(ChatColor.YELLOW + "Click to view results");
                 } else {
@@ -89,50 +108,33 @@ public class PollListMenu extends Menu {
 
         // Navigation buttons
         if (currentPage > 0) {
-            setItem(45, new MenuItem(Material.ARROW, ChatColor.GREEN + "Previous Page")
-                    .addLoreLine(ChatColor.GRAY + "Go to page " + currentPage)
-                    .setClickHandler((p, slot) -> {
-                        PollListMenu prevPage = new PollListMenu(p, pollManager, currentPage - 1);
-                        prevPage.open();
-                    }));
+            setItem(45, MenuItems.previousPage(currentPage), (p, slot) -> showPage(currentPage - 1));
         }
 
         if (currentPage < totalPages - 1) {
-            setItem(53, new MenuItem(Material.ARROW, ChatColor.GREEN + "Next Page")
-                    .addLoreLine(ChatColor.GRAY + "Go to page " + (currentPage + 2))
-                    .setClickHandler((p, slot) -> {
-                        PollListMenu nextPage = new PollListMenu(p, pollManager, currentPage + 1);
-                        nextPage.open();
-                    }));
+            setItem(53, MenuItems.nextPage(currentPage + 2), (p, slot) -> showPage(currentPage + 1));
         }
 
         // Refresh button
-        setItem(49, new MenuItem(Material.CLOCK, ChatColor.YELLOW + "Refresh")
-                .addLoreLine(ChatColor.GRAY + "Update poll list")
-                .setClickHandler((p, slot) -> {
-                    PollListMenu refreshed = new PollListMenu(p, pollManager, currentPage);
-                    refreshed.open();
-                    p.sendMessage(ChatColor.GREEN + "Poll list refreshed!");
-                }));
+        setItem(49, PollMenuItems.REFRESH_LIST, (p, slot) -> {
+            activePolls = null;
+            redraw(this::setupMenu);
+            p.sendMessage(ChatColor.GREEN + "Poll list refreshed!");
+        });
 
         // My polls button (if player has permission to create polls)
         if (pollManager.canCreatePoll(player)) {
-            setItem(47, new MenuItem(Material.PLAYER_HEAD, ChatColor.LIGHT_PURPLE + "My Polls")
-                    .addLoreLine(ChatColor.GRAY + "View polls you created")
-                    .setClickHandler((p, slot) -> {
-                        MyPollsMenu myPolls = new MyPollsMenu(p, pollManager);
-                        myPolls.open();
-                    }));
+            setItem(47, PollMenuItems.MY_POLLS, (p, slot) -> {
+                MyPollsMenu myPolls = new MyPollsMenu(p, pollManager);
+                myPolls.open();
+            });
         }
 
         // Closed polls button
-        setItem(51, new MenuItem(Material.GRAY_STAINED_GLASS, ChatColor.RED + "Closed Polls")
-                .addLoreLine(ChatColor.GRAY + "View polls that have ended")
-                .addLoreLine(ChatColor.GRAY + "See final results and statistics")
-                .setClickHandler((p, slot) -> {
-                    ClosedPollsMenu closedPolls = new ClosedPollsMenu(p, pollManager);
-                    closedPolls.open();
-                }));
+        setItem(51, PollMenuItems.CLOSED_POLLS, (p, slot) -> {
+            ClosedPollsMenu closedPolls = new ClosedPollsMenu(p, pollManager);
+            closedPolls.open();
+        });
 
         // Info and help
         if (activePolls.isEmpty()) {
@@ -144,6 +146,14 @@ public class PollListMenu extends Menu {
         }
     }
 
+    /**
+     * Flips to another page in place, over the same poll list
+     */
+    private void showPage(int page) {
+        currentPage = page;
+        redraw(this::setupMenu);
+    }
+
     private Material getPollMaterial(Poll poll) {
         // Choose material based on poll characteristics
         if (poll.hasVoted(player.getUniqueId())) {
@@ -0,0 +1,62 @@
+package com.rednetty.gui;
+
+import com.rednetty.menu.MenuItem;
+import com.rednetty.menu.MenuItems;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+
+/**
+ * Shared buttons of the poll menus. They look the same for every player, so each is
+ * rendered once; menus bind their click handlers per slot.
+ */
+final class PollMenuItems {
+    static final MenuItem REFRESH_LIST = MenuItems.shared("poll:refresh-list",
+            () -> new MenuItem(Material.CLOCK, ChatColor.YELLOW + "Refresh")
+                    .addLoreLine(ChatColor.GRAY + "Update poll list"));
+
+    static final MenuItem REFRESH_POLL = MenuItems.shared("poll:refresh-poll",
+            () -> new MenuItem(Material.CLOCK, ChatColor.YELLOW + "Refresh")
+                    .addLoreLine(ChatColor.GRAY + "Update poll results"));
+
+    static final MenuItem REFRESH_RESULTS = MenuItems.shared("poll:refresh-results",
+            () -> new MenuItem(Material.CLOCK, ChatColor.YELLOW + "Refresh Results")
+                    .addLoreLine(ChatColor.GRAY + "Update poll results"));
+
+    static final MenuItem CLOSED_POLLS = MenuItems.shared("poll:closed-polls",
+            () -> new MenuItem(Material.GRAY_STAINED_GLASS, ChatColor.RED + "Closed Polls")
+                    .addLoreLine(ChatColor.GRAY + "View polls that have ended")
+                    .addLoreLine(ChatColor.GRAY + "See final results and statistics"));
+
+    static final MenuItem MY_POLLS = MenuItems.shared("poll:my-polls",
+            () -> new MenuItem(Material.PLAYER_HEAD, ChatColor.LIGHT_PURPLE + "My Polls")
+                    .addLoreLine(ChatColor.GRAY + "View polls you created"));
+
+    static final MenuItem BACK_TO_ACTIVE = MenuItems.shared("poll:back-to-active",
+            () -> new MenuItem(Material.BOOK, ChatColor.YELLOW + "Back to Active Polls")
+                    .addLoreLine(ChatColor.GRAY + "Return to the active poll list"));
+
+    static final MenuItem BACK_TO_ALL = MenuItems.shared("poll:back-to-all",
+            () -> new MenuItem(Material.BOOK, ChatColor.YELLOW + "Back to All Polls")
+                    .addLoreLine(ChatColor.GRAY + "Return to the main poll list"));
+
+    static final MenuItem RESULTS_BACK_TO_ACTIVE = MenuItems.shared("poll:results-back-to-active",
+            () -> new MenuItem(Material.ARROW, ChatColor.YELLOW + "Back to Active Polls")
+                    .addLoreLine(ChatColor.GRAY + "Return to the active poll list"));
+
+    static final MenuItem RESULTS_BACK_TO_CLOSED = MenuItems.shared("poll:results-back-to-closed",
+            () -> new MenuItem(Material.ARROW, ChatColor.YELLOW + "Back to Closed Polls")
+                    .addLoreLine(ChatColor.GRAY + "Return to the closed poll list"));
+
+    static final MenuItem BACK_TO_POLL_LIST = MenuItems.shared("poll:back-to-poll-list",
+            () -> new MenuItem(Material.ARROW, ChatColor.YELLOW + "Back to Poll List")
+                    .addLoreLine(ChatColor.GRAY + "Return to the main poll list"));
+
+    static final MenuItem CREATE_POLL = MenuItems.shared("poll:create-poll",
+            () -> new MenuItem(Material.EMERALD, ChatColor.GREEN + "Create New Poll")
+                    .addLoreLine(ChatColor.GRAY + "Start creating a new poll")
+                    .addLoreLine("")
+                    .addLoreLine(ChatColor.YELLOW + "Use: /createpoll <duration> <question>"));
+
+    private PollMenuItems() {
+    }
+}
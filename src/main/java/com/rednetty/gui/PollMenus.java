@@ -0,0 +1,32 @@
+package com.rednetty.gui;
+
+import com.rednetty.PollPlugin;
+import com.rednetty.menu.Menu;
+import com.rednetty.poll.PollManager;
+
+/**
+ * Auto-refresh settings shared by the poll menus
+ */
+final class PollMenus {
+    private static final long MINUTE_MILLIS = 60_000;
+
+    private PollMenus() {}
+
+    /**
+     * Refreshes the menu every {@code gui.auto-refresh-seconds}, unless that is 0
+     */
+    static void enableAutoRefresh(Menu menu) {
+        int seconds = PollPlugin.getInstance().getConfig().getInt("gui.auto-refresh-seconds", 30);
+        if (seconds > 0) {
+            menu.setAutoRefresh(true, seconds * 20);
+        }
+    }
+
+    /**
+     * Data version of a menu showing live polls. Besides poll changes it moves on once a
+     * minute, as the time remaining shown on active polls counts down in minutes.
+     */
+    static long dataVersion(PollManager pollManager) {
+        return pollManager.getDataVersion() << 32 ^ System.currentTimeMillis() / MINUTE_MILLIS;
+    }
+}
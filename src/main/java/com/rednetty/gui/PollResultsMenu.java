@@ -12,7 +12,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 public class PollResultsMenu extends Menu {
-    private final Poll poll;
+    private Poll poll;
     private final PollManager pollManager;
 
     public PollResultsMenu(Player player, Poll poll, PollManager pollManager) {
@@ -20,6 +20,23 @@ public class PollResultsMenu extends Menu {
         this.poll = poll;
         this.pollManager = pollManager;
         setupMenu();
+        if (poll.isActive()) {
+            PollMenus.enableAutoRefresh(this);
+        }
+    }
+
+    @Override
+    protected void onRefresh() {
+        redraw(this::setupMenu);
+        if (!poll.isActive()) {
+            // A closed poll no longer changes
+            setAutoRefresh(false, 0);
+        }
+    }
+
+    @Override
+    protected long getDataVersion() {
+        return PollMenus.dataVersion(pollManager);
     }
 
     private void setupMenu() {
@@ -89,7 +106,7 @@ public class PollResultsMenu extends Menu {
 
             // Show if the viewing player voted for this option
             if (poll.hasVoted(player.getUniqueId())) {
-                String playerVote = poll.getVotes().get(player.getUniqueId());
+                String playerVote = poll.getPlayerVote(player.getUniqueId());
                 if (option.equals(playerVote)) {
                     resultItem.addLoreLine("")
                             .addLoreLine(ChatColor.GREEN + "✓ Your choice");
@@ -103,17 +120,15 @@ public class PollResultsMenu extends Menu {
     private void displaySummary() {
         // Winner information
         if (poll.getTotalVotes() > 0) {
-            Map<String, Integer> results = poll.getResults();
-            var winner = results.entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
-                    .orElse(null);
+            String winner = poll.getWinningOption();
 
             if (winner != null) {
-                double winnerPercentage = (double) winner.getValue() / poll.getTotalVotes() * 100;
+                int winnerVotes = poll.getVotesForOption(winner);
+                double winnerPercentage = (double) winnerVotes / poll.getTotalVotes() * 100;
 
                 setItem(40, new MenuItem(Material.GOLD_INGOT, ChatColor.GOLD + "Poll Winner")
-                        .addLoreLine(ChatColor.WHITE + winner.getKey())
-                        .addLoreLine(ChatColor.GRAY + "Votes: " + ChatColor.WHITE + winner.getValue())
+                        .addLoreLine(ChatColor.WHITE + winner)
+                        .addLoreLine(ChatColor.GRAY + "Votes: " + ChatColor.WHITE + winnerVotes)
                         .addLoreLine(ChatColor.GRAY + "Percentage: " + ChatColor.WHITE + String.format("%.1f%%", winnerPercentage))
                         .addLoreLine("")
                         .addLoreLine(ChatColor.YELLOW + "🎉 Congratulations! 🎉"));
@@ -129,41 +144,36 @@ public class PollResultsMenu extends Menu {
     private void setupActionButtons() {
         // Back button
         if (poll.isActive()) {
-            setItem(45, new MenuItem(Material.ARROW, ChatColor.YELLOW + "Back to Active Polls")
-                    .addLoreLine(ChatColor.GRAY + "Return to the active poll list")
-                    .setClickHandler((p, slot) -> {
-                        PollListMenu pollList = new PollListMenu(p, pollManager);
-                        pollList.open();
-                    }));
+            setItem(45, PollMenuItems.RESULTS_BACK_TO_ACTIVE, (p, slot) -> {
+                PollListMenu pollList = new PollListMenu(p, pollManager);
+                pollList.open();
+            });
         } else {
-            setItem(45, new MenuItem(Material.ARROW, ChatColor.YELLOW + "Back to Closed Polls")
-                    .addLoreLine(ChatColor.GRAY + "Return to the closed poll list")
-                    .setClickHandler((p, slot) -> {
-                        ClosedPollsMenu closedPolls = new ClosedPollsMenu(p, pollManager);
-                        closedPolls.open();
-                    }));
+            setItem(45, PollMenuItems.RESULTS_BACK_TO_CLOSED, (p, slot) -> {
+                ClosedPollsMenu closedPolls = new ClosedPollsMenu(p, pollManager);
+                closedPolls.open();
+            });
         }
 
         // Refresh button
-        setItem(49, new MenuItem(Material.CLOCK, ChatColor.YELLOW + "Refresh Results")
-                .addLoreLine(ChatColor.GRAY + "Update poll results")
-                .setClickHandler((p, slot) -> {
-                    // Reload poll data from storage
-                    Poll refreshedPoll = pollManager.getPoll(poll.getPollUUID());
-                    if (refreshedPoll != null) {
-                        PollResultsMenu refreshed = new PollResultsMenu(p, refreshedPoll, pollManager);
-                        refreshed.open();
+        setItem(49, PollMenuItems.REFRESH_RESULTS, (p, slot) -> {
+            // Reload poll data from storage
+            pollManager.getPollAsync(poll.getPollUUID()).thenAccept(refreshedPoll -> {
+                if (refreshedPoll != null) {
+                    poll = refreshedPoll;
+                    redraw(this::setupMenu);
+                } else {
+                    p.sendMessage(ChatColor.RED + "This poll no longer exists.");
+                    if (poll.isActive()) {
+                        PollListMenu pollList = new PollListMenu(p, pollManager);
+                        pollList.open();
                     } else {
-                        p.sendMessage(ChatColor.RED + "This poll no longer exists.");
-                        if (poll.isActive()) {
-                            PollListMenu pollList = new PollListMenu(p, pollManager);
-                            pollList.open();
-                        } else {
-                            ClosedPollsMenu closedPolls = new ClosedPollsMenu(p, pollManager);
-                            closedPolls.open();
-                        }
+                        ClosedPollsMenu closedPolls = new ClosedPollsMenu(p, pollManager);
+                        closedPolls.open();
                     }
-                }));
+                }
+            });
+        });
 
         // Vote button (if poll is active and player hasn't voted)
         if (poll.isActive() && !poll.hasVoted(player.getUniqueId())) {
@@ -181,15 +191,15 @@ public class PollResultsMenu extends Menu {
                     .addLoreLine(ChatColor.GRAY + "Close this poll permanently")
                     .addLoreLine(ChatColor.GRAY + "This action cannot be undone")
                     .setClickHandler((p, slot) -> {
-                        if (pollManager.closePoll(poll.getPollUUID())) {
-                            p.sendMessage(ChatColor.GREEN + "Poll closed successfully!");
-                            // Refresh to show closed poll
-                            Poll closedPoll = pollManager.getPoll(poll.getPollUUID());
-                            PollResultsMenu results = new PollResultsMenu(p, closedPoll, pollManager);
-                            results.open();
-                        } else {
-                            p.sendMessage(ChatColor.RED + "Failed to close the poll.");
-                        }
+                        pollManager.closePollAsync(poll.getPollUUID()).thenAccept(closed -> {
+                            if (closed) {
+                                p.sendMessage(ChatColor.GREEN + "Poll closed successfully!");
+                                // Redraw in place to show the closed poll
+                                redraw(this::setupMenu);
+                            } else {
+                                p.sendMessage(ChatColor.RED + "Failed to close the poll.");
+                            }
+                        });
                     }));
         }
 
@@ -198,18 +208,21 @@ public class PollResultsMenu extends Menu {
                     .addLoreLine(ChatColor.GRAY + "Permanently delete this poll")
                     .addLoreLine(ChatColor.RED + "This action cannot be undone!")
                     .setClickHandler((p, slot) -> {
-                        if (pollManager.removePoll(poll.getPollUUID())) {
-                            p.sendMessage(ChatColor.GREEN + "Poll deleted successfully!");
-                            if (poll.isActive()) {
-                                PollListMenu pollList = new PollListMenu(p, pollManager);
-                                pollList.open();
+                        boolean wasActive = poll.isActive();
+                        pollManager.removePollAsync(poll.getPollUUID()).thenAccept(removed -> {
+                            if (removed) {
+                                p.sendMessage(ChatColor.GREEN + "Poll deleted successfully!");
+                                if (wasActive) {
+                                    PollListMenu pollList = new PollListMenu(p, pollManager);
+                                    pollList.open();
+                                } else {
+                                    ClosedPollsMenu closedPolls = new ClosedPollsMenu(p, pollManager);
+                                    closedPolls.open();
+                                }
                             } else {
-                                ClosedPollsMenu closedPolls = new ClosedPollsMenu(p, pollManager);
-                                closedPolls.open();
+                                p.sendMessage(ChatColor.RED + "Failed to delete the poll.");
                             }
-                        } else {
-                            p.sendMessage(ChatColor.RED + "Failed to delete the poll.");
-                        }
+                        });
                     }));
         }
 
@@ -8,10 +8,11 @@ import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 
+import java.util.List;
 import java.util.Map;
 
 public class PollVotingMenu extends Menu {
-    private final Poll poll;
+    private Poll poll;
     private final PollManager pollManager;
     private final boolean previewMode;
 
@@ -21,6 +22,23 @@ public class PollVotingMenu extends Menu {
         this.pollManager = pollManager;
         this.previewMode = previewMode;
         setupMenu();
+        if (!previewMode && poll.isActive()) {
+            PollMenus.enableAutoRefresh(this);
+        }
+    }
+
+    @Override
+    protected void onRefresh() {
+        redraw(this::setupMenu);
+        if (!poll.isActive()) {
+            // A closed poll no longer changes
+            setAutoRefresh(false, 0);
+        }
+    }
+
+    @Override
+    protected long getDataVersion() {
+        return PollMenus.dataVersion(pollManager);
     }
 
     private void setupMenu() {
@@ -35,7 +53,7 @@ public class PollVotingMenu extends Menu {
                 .addLoreLine(ChatColor.GRAY + "Total votes: " + ChatColor.WHITE + poll.getTotalVotes()));
 
         boolean hasVoted = poll.hasVoted(player.getUniqueId());
-        String playerVote = hasVoted ? poll.getVotes().get(player.getUniqueId()) : null;
+        String playerVote = hasVoted ? poll.getPlayerVote(player.getUniqueId()) : null;
 
         // Display voting options or results
         displayOptions(hasVoted, playerVote);
@@ -47,9 +65,10 @@ public class PollVotingMenu extends Menu {
     private void displayOptions(boolean hasVoted, String playerVote) {
         int[] optionSlots = {19, 20, 21, 22, 23, 24, 28, 29, 30, 31, 32, 33};
         Map<String, Integer> results = poll.getResults();
+        List<String> options = poll.getOptions();
 
-        for (int i = 0; i < poll.getOptions().size() && i < optionSlots.length; i++) {
-            String option = poll.getOptions().get(i);
+        for (int i = 0; i < options.size() && i < optionSlots.length; i++) {
+            String option = options.get(i);
             int slot = optionSlots[i];
             int votes = results.getOrDefault(option, 0);
 
@@ -91,16 +110,18 @@ public class PollVotingMenu extends Menu {
 
                 final String finalOption = option;
                 menuItem.setClickHandler((p, clickedSlot) -> {
-                    if (pollManager.vote(poll.getPollUUID(), p.getUniqueId(), finalOption)) {
-                        p.sendMessage(ChatColor.GREEN + "Vote recorded!");
-                        p.sendMessage(ChatColor.GRAY + "You voted for: " + ChatColor.WHITE + finalOption);
-
-                        // Refresh the menu to show results
-                        PollVotingMenu resultsMenu = new PollVotingMenu(p, poll, pollManager, false);
-                        resultsMenu.open();
-                    } else {
-                        p.sendMessage(ChatColor.RED + "Failed to record your vote. You may have already voted.");
-                    }
+                    // Confirmed once the vote is on disk
+                    pollManager.voteAsync(poll.getPollUUID(), p.getUniqueId(), finalOption).thenAccept(voted -> {
+                        if (voted) {
+                            p.sendMessage(ChatColor.GREEN + "Vote recorded!");
+                            p.sendMessage(ChatColor.GRAY + "You voted for: " + ChatColor.WHITE + finalOption);
+
+                            // Redraw in place to show results
+                            redraw(this::setupMenu);
+                        } else {
+                            p.sendMessage(ChatColor.RED + "Failed to record your vote. You may have already voted.");
+                        }
+                    });
                 });
             }
 
@@ -144,28 +165,25 @@ public class PollVotingMenu extends Menu {
 
     private void setupActionButtons(boolean hasVoted) {
         // Back to poll list
-        setItem(45, new MenuItem(Material.ARROW, ChatColor.YELLOW + "Back to Poll List")
-                .addLoreLine(ChatColor.GRAY + "Return to the main poll list")
-                .setClickHandler((p, slot) -> {
-                    PollListMenu pollList = new PollListMenu(p, pollManager);
-                    pollList.open();
-                }));
+        setItem(45, PollMenuItems.BACK_TO_POLL_LIST, (p, slot) -> {
+            PollListMenu pollList = new PollListMenu(p, pollManager);
+            pollList.open();
+        });
 
         // Refresh button
-        setItem(49, new MenuItem(Material.CLOCK, ChatColor.YELLOW + "Refresh")
-                .addLoreLine(ChatColor.GRAY + "Update poll results")
-                .setClickHandler((p, slot) -> {
-                    // Reload poll data from storage
-                    Poll refreshedPoll = pollManager.getPoll(poll.getPollUUID());
-                    if (refreshedPoll != null) {
-                        PollVotingMenu refreshed = new PollVotingMenu(p, refreshedPoll, pollManager, previewMode);
-                        refreshed.open();
-                    } else {
-                        p.sendMessage(ChatColor.RED + "This poll is no longer active.");
-                        PollListMenu pollList = new PollListMenu(p, pollManager);
-                        pollList.open();
-                    }
-                }));
+        setItem(49, PollMenuItems.REFRESH_POLL, (p, slot) -> {
+            // Reload poll data from storage
+            pollManager.getPollAsync(poll.getPollUUID()).thenAccept(refreshedPoll -> {
+                if (refreshedPoll != null) {
+                    poll = refreshedPoll;
+                    redraw(this::setupMenu);
+                } else {
+                    p.sendMessage(ChatColor.RED + "This poll is no longer active.");
+                    PollListMenu pollList = new PollListMenu(p, pollManager);
+                    pollList.open();
+                }
+            });
+        });
 
         // Admin controls (if player has permission)
         if (pollManager.canClosePoll(player, poll)) {
@@ -173,13 +191,15 @@ public class PollVotingMenu extends Menu {
                     .addLoreLine(ChatColor.GRAY + "Close this poll permanently")
                     .addLoreLine(ChatColor.GRAY + "This action cannot be undone")
                     .setClickHandler((p, slot) -> {
-                        if (pollManager.closePoll(poll.getPollUUID())) {
-                            p.sendMessage(ChatColor.GREEN + "Poll closed successfully!");
-                            PollListMenu pollList = new PollListMenu(p, pollManager);
-                            pollList.open();
-                        } else {
-                            p.sendMessage(ChatColor.RED + "Failed to close the poll.");
-                        }
+                        pollManager.closePollAsync(poll.getPollUUID()).thenAccept(closed -> {
+                            if (closed) {
+                                p.sendMessage(ChatColor.GREEN + "Poll closed successfully!");
+                                PollListMenu pollList = new PollListMenu(p, pollManager);
+                                pollList.open();
+                            } else {
+                                p.sendMessage(ChatColor.RED + "Failed to close the poll.");
+                            }
+                        });
                     }));
         }
 
@@ -188,13 +208,15 @@ public class PollVotingMenu extends Menu {
                     .addLoreLine(ChatColor.GRAY + "Permanently delete this poll")
                     .addLoreLine(ChatColor.RED + "This action cannot be undone!")
                     .setClickHandler((p, slot) -> {
-                        if (pollManager.removePoll(poll.getPollUUID())) {
-                            p.sendMessage(ChatColor.GREEN + "Poll deleted successfully!");
-                            PollListMenu pollList = new PollListMenu(p, pollManager);
-                            pollList.open();
-                        } else {
-                            p.sendMessage(ChatColor.RED + "Failed to delete the poll.");
-                        }
+                        pollManager.removePollAsync(poll.getPollUUID()).thenAccept(removed -> {
+                            if (removed) {
+                                p.sendMessage(ChatColor.GREEN + "Poll deleted successfully!");
+                                PollListMenu pollList = new PollListMenu(p, pollManager);
+                                pollList.open();
+                            } else {
+                                p.sendMessage(ChatColor.RED + "Failed to delete the poll.");
+                            }
+                        });
                     }));
         }
 
@@ -203,13 +225,15 @@ public class PollVotingMenu extends Menu {
             setItem(53, new MenuItem(Material.EMERALD, ChatColor.GREEN + "Finish & Create")
                     .addLoreLine(ChatColor.GRAY + "Save this poll and make it active")
                     .setClickHandler((p, slot) -> {
-                        if (pollManager.savePoll(poll)) {
-                            p.sendMessage(ChatColor.GREEN + "Poll created successfully!");
-                            p.sendMessage(ChatColor.GRAY + "Poll ID: " + ChatColor.WHITE + poll.getPollUUID().toString().substring(0, 8));
-                            close();
-                        } else {
-                            p.sendMessage(ChatColor.RED + "Failed to create poll.");
-                        }
+                        pollManager.savePollAsync(poll).thenAccept(saved -> {
+                            if (saved) {
+                                p.sendMessage(ChatColor.GREEN + "Poll created successfully!");
+                                p.sendMessage(ChatColor.GRAY + "Poll ID: " + ChatColor.WHITE + poll.getPollUUID().toString().substring(0, 8));
+                                close();
+                            } else {
+                                p.sendMessage(ChatColor.RED + "Failed to create poll.");
+                            }
+                        });
                     }));
         }
 
@@ -220,7 +244,7 @@ public class PollVotingMenu extends Menu {
 
             setItem(40, new MenuItem(statusMaterial, statusText)
                     .addLoreLine(hasVoted ?
-                            ChatColor.GRAY + "Your vote: " + ChatColor.WHITE + poll.getVotes().get(player.getUniqueId()) :
+                            ChatColor.GRAY + "Your vote: " + ChatColor.WHITE + poll.getPlayerVote(player.getUniqueId()) :
                             ChatColor.GRAY + "Click an option above to vote"));
         }
     }
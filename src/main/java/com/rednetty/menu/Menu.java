@@ -16,11 +16,10 @@ import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
@@ -31,21 +30,37 @@ public abstract class Menu {
     private static final Map<UUID, Menu> openMenus = new ConcurrentHashMap<>();
     private static final MenuEventHandler eventHandler = new MenuEventHandler();
     private static boolean initialized = false;
+    private static final AtomicLong slotUpdates = new AtomicLong();
+    private static final AtomicLong skippedSlotUpdates = new AtomicLong();
+    // One scheduler task refreshes and animates all open menus
+    private static final MenuTicker ticker = new MenuTicker();
+
+    /**
+     * Data version meaning the menu cannot tell whether its data changed, so every
+     * auto-refresh goes ahead
+     */
+    protected static final long ALWAYS_REFRESH = Long.MIN_VALUE;
 
     protected final Player player;
     protected final Inventory inventory;
     protected final Map<Integer, MenuItem> items = new HashMap<>();
+    // Content hash of what each slot shows, so unchanged items are not rebuilt and resent
+    private final Map<Integer, Integer> renderedHashes = new HashMap<>();
+    // Click handlers bound to slots showing shared items, which carry no handler of their own
+    private final Map<Integer, MenuClickHandler> slotHandlers = new HashMap<>();
+    // While redrawing, items are only recorded and pushed together once the build is done
+    private boolean redrawing = false;
+    private int redrawCount = 0;
     protected final String originalTitle;
 
-    private BukkitTask refreshTask;
     private boolean autoRefresh = false;
     private int refreshInterval = 20;
+    private long refreshedVersion = ALWAYS_REFRESH;
     private boolean playClickSounds = true;
     private Sound clickSound = Sound.UI_BUTTON_CLICK;
     private final Set<Integer> protectedSlots = new HashSet<>();
     private final Map<String, Object> menuData = new HashMap<>();
     private final Map<Integer, AnimatedMenuItem> animatedItems = new HashMap<>();
-    private BukkitTask animationTask;
 
     /**
      * Creates a new menu
@@ -136,10 +151,26 @@ public abstract class Menu {
         }
 
         items.put(slot, item);
-        inventory.setItem(slot, item.toItemStack());
+        slotHandlers.remove(slot);
+        if (!redrawing) {
+            render(slot, item);
+        }
 
         if (item instanceof AnimatedMenuItem) {
             animatedItems.put(slot, (AnimatedMenuItem) item);
+        } else {
+            animatedItems.remove(slot);
+        }
+    }
+
+    /**
+     * Shows an item, typically a shared one from {@link MenuItems}, with a click handler
+     * for this slot only. The handler takes precedence over the item's own.
+     */
+    public void setItem(int slot, MenuItem item, MenuClickHandler clickHandler) {
+        setItem(slot, item);
+        if (item != null && clickHandler != null && isValidSlot(slot)) {
+            slotHandlers.put(slot, clickHandler);
         }
     }
 
@@ -159,13 +190,64 @@ public abstract class Menu {
         }
 
         items.remove(slot);
+        slotHandlers.remove(slot);
         animatedItems.remove(slot);
-        inventory.setItem(slot, null);
+        if (!redrawing && renderedHashes.remove(slot) != null) {
+            inventory.setItem(slot, null);
+        }
+    }
+
+    /**
+     * Rebuilds the menu in the inventory it already has, e.g. for a page flip or refresh.
+     * The build sets every item again as during construction; slots it leaves empty are
+     * cleared and only slots whose content changed are sent. The window stays open, so the
+     * client neither redraws it nor resets the cursor.
+     */
+    protected void redraw(Runnable build) {
+        redrawCount++;
+        items.clear();
+        slotHandlers.clear();
+        animatedItems.clear();
+
+        redrawing = true;
+        try {
+            build.run();
+        } finally {
+            redrawing = false;
+        }
+
+        Iterator<Integer> rendered = renderedHashes.keySet().iterator();
+        while (rendered.hasNext()) {
+            int slot = rendered.next();
+            if (!items.containsKey(slot)) {
+                inventory.setItem(slot, null);
+                rendered.remove();
+            }
+        }
+        updateInventory();
+
+        if (isOpen()) {
+            startAnimations();
+        }
+    }
+
+    /**
+     * Number of redraws so far. Async loads compare it with the value from when they
+     * started, to drop results for a page the player has already left.
+     */
+    protected int getRedrawCount() {
+        return redrawCount;
     }
 
     public void createBorder(Material material, String name) {
-        ItemStack borderItem = new ItemStack(material);
-        MenuItem borderMenuItem = new MenuItem(borderItem).setDisplayName(name != null ? name : " ");
+        createBorder(MenuItems.border(material, name));
+    }
+
+    public void createBorder() {
+        createBorder(MenuItems.BORDER);
+    }
+
+    private void createBorder(MenuItem borderMenuItem) {
 
         int size = inventory.getSize();
         int rows = size / 9;
@@ -183,21 +265,32 @@ public abstract class Menu {
         }
     }
 
-    public void createBorder() {
-        createBorder(Material.GRAY_STAINED_GLASS_PANE, ChatColor.GRAY + " ");
-    }
-
     public void fillEmpty(Material material, String name) {
-        ItemStack fillerItem = new ItemStack(material);
-        MenuItem fillerMenuItem = new MenuItem(fillerItem).setDisplayName(name != null ? name : " ");
+        MenuItem fillerMenuItem = MenuItems.border(material, name);
 
         for (int slot = 0; slot < inventory.getSize(); slot++) {
-            if (inventory.getItem(slot) == null) {
+            if (!items.containsKey(slot)) {
                 setItem(slot, fillerMenuItem);
             }
         }
     }
 
+    /**
+     * Shows a placeholder in the slot while the menu's data loads in the background
+     */
+    protected void setLoading(int slot) {
+        setItem(slot, new MenuItem(Material.HOPPER, ChatColor.GRAY + "Loading...")
+                .addLoreLine(ChatColor.DARK_GRAY + "Fetching data, please wait"));
+    }
+
+    /**
+     * Replaces a loading placeholder when the menu's data could not be loaded
+     */
+    protected void setLoadFailed(int slot) {
+        setItem(slot, new MenuItem(Material.BARRIER, ChatColor.RED + "Failed to load")
+                .addLoreLine(ChatColor.GRAY + "Use Refresh to try again"));
+    }
+
     private boolean isValidSlot(int slot) {
         return slot >= 0 && slot < inventory.getSize();
     }
@@ -218,70 +311,79 @@ public abstract class Menu {
     private void startAutoRefresh() {
         if (!autoRefresh) return;
 
-        stopAutoRefresh();
-
-        refreshTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!isOpen()) {
-                    cancel();
-                    return;
-                }
-
-                try {
-                    onRefresh();
-                    updateInventory();
-                } catch (Exception e) {
-                    LOGGER.warning("Error during menu refresh: " + e.getMessage());
-                }
-            }
-        }.runTaskTimer(PollPlugin.getInstance(), refreshInterval, refreshInterval);
+        // The menu was just built, so the first refresh is only needed once the data moves on
+        refreshedVersion = getDataVersion();
+        ticker.addRefresh(this, refreshInterval);
     }
 
     private void stopAutoRefresh() {
-        if (refreshTask != null && !refreshTask.isCancelled()) {
-            refreshTask.cancel();
-            refreshTask = null;
+        ticker.removeRefresh(this);
+    }
+
+    /**
+     * Refreshes the menu when it is due, unless the data it shows has not changed since the
+     * last refresh. Called by the {@link MenuTicker}.
+     *
+     * @return true if the menu was refreshed
+     */
+    boolean tickRefresh() {
+        if (!isOpen()) {
+            stopAutoRefresh();
+            return false;
+        }
+
+        long version = getDataVersion();
+        if (version != ALWAYS_REFRESH && version == refreshedVersion) {
+            return false;
+        }
+
+        try {
+            onRefresh();
+            updateInventory();
+            refreshedVersion = version;
+        } catch (Exception e) {
+            LOGGER.warning("Error during menu refresh: " + e.getMessage());
         }
+        return true;
     }
 
     private void startAnimations() {
         if (animatedItems.isEmpty()) return;
 
-        stopAnimations();
-
-        animationTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!isOpen() || animatedItems.isEmpty()) {
-                    cancel();
-                    return;
-                }
-
-                for (Map.Entry<Integer, AnimatedMenuItem> entry : animatedItems.entrySet()) {
-                    AnimatedMenuItem animItem = entry.getValue();
-                    if (animItem.shouldUpdate()) {
-                        animItem.update();
-                        inventory.setItem(entry.getKey(), animItem.toItemStack());
-                    }
-                }
-            }
-        }.runTaskTimer(PollPlugin.getInstance(), 5L, 5L);
+        ticker.addAnimations(this);
     }
 
     private void stopAnimations() {
-        if (animationTask != null && !animationTask.isCancelled()) {
-            animationTask.cancel();
-            animationTask = null;
+        ticker.removeAnimations(this);
+    }
+
+    /**
+     * Advances the animated items that are due. Called by the {@link MenuTicker}.
+     */
+    void tickAnimations() {
+        if (!isOpen() || animatedItems.isEmpty()) {
+            stopAnimations();
+            return;
+        }
+
+        for (Map.Entry<Integer, AnimatedMenuItem> entry : animatedItems.entrySet()) {
+            AnimatedMenuItem animItem = entry.getValue();
+            if (animItem.shouldUpdate()) {
+                animItem.update();
+                render(entry.getKey(), animItem);
+            }
         }
     }
 
+    /**
+     * Pushes the slots whose items changed since they were last shown
+     */
     protected void updateInventory() {
         try {
             for (Map.Entry<Integer, MenuItem> entry : items.entrySet()) {
                 int slot = entry.getKey();
                 if (isValidSlot(slot)) {
-                    inventory.setItem(slot, entry.getValue().toItemStack());
+                    render(slot, entry.getValue());
                 }
             }
         } catch (Exception e) {
@@ -289,6 +391,25 @@ public abstract class Menu {
         }
     }
 
+    /**
+     * Builds the item into the slot unless the slot already shows the same content
+     *
+     * @return true if the slot was updated
+     */
+    private boolean render(int slot, MenuItem item) {
+        int hash = item.contentHash();
+        Integer rendered = renderedHashes.get(slot);
+        if (rendered != null && rendered == hash) {
+            skippedSlotUpdates.incrementAndGet();
+            return false;
+        }
+
+        inventory.setItem(slot, item.toItemStack());
+        renderedHashes.put(slot, hash);
+        slotUpdates.incrementAndGet();
+        return true;
+    }
+
     protected void handleClick(int slot) {
         if (!isValidSlot(slot)) {
             return;
@@ -305,9 +426,10 @@ public abstract class Menu {
                 playSound(clickSound, 0.5f, 1.0f);
             }
 
-            if (item.getClickHandler() != null) {
+            MenuClickHandler clickHandler = slotHandlers.getOrDefault(slot, item.getClickHandler());
+            if (clickHandler != null) {
                 try {
-                    item.getClickHandler().onClick(player, slot);
+                    clickHandler.onClick(player, slot);
                 } catch (Exception e) {
                     LOGGER.warning("Error executing click handler for slot " + slot + ": " + e.getMessage());
                 }
@@ -367,6 +489,14 @@ public abstract class Menu {
     protected void onPostClose() {}
     protected void onRefresh() {}
 
+    /**
+     * Version of the data the menu shows. Auto-refresh skips the menu while this stays the
+     * same as at its last refresh; {@link #ALWAYS_REFRESH} refreshes every time.
+     */
+    protected long getDataVersion() {
+        return ALWAYS_REFRESH;
+    }
+
     private void onClose() {
         openMenus.remove(player.getUniqueId());
         stopAutoRefresh();
@@ -391,6 +521,10 @@ public abstract class Menu {
         stats.put("openMenus", openMenus.size());
         stats.put("initialized", initialized);
         stats.put("registeredPlayers", openMenus.keySet().size());
+        stats.put("slotUpdates", slotUpdates.get());
+        stats.put("skippedSlotUpdates", skippedSlotUpdates.get());
+        stats.put("sharedItems", MenuItems.getSharedCount());
+        stats.put("ticker", ticker.getStatistics());
         return stats;
     }
 
@@ -7,17 +7,26 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * Represents an item in a menu with an optional click handler
+ * Represents an item in a menu with an optional click handler. A frozen item can no
+ * longer change, so one instance may be shown in any number of slots and menus.
  */
 public class MenuItem {
 
     private ItemStack itemStack;
+    // Hash of the base stack, which never changes after construction
+    private final int baseHash;
     private String displayName;
     private List<String> lore = new ArrayList<>();
     private boolean glowing = false;
     private MenuClickHandler clickHandler;
+    // Rendered form and its hash, rebuilt only after a mutator changes what the item shows
+    private ItemStack rendered;
+    private int renderedHash;
+    private boolean hashValid = false;
+    private boolean frozen = false;
 
     public MenuItem(Material material) {
         this(new ItemStack(material));
@@ -30,6 +39,7 @@ public class MenuItem {
 
     public MenuItem(ItemStack itemStack) {
         this.itemStack = itemStack.clone();
+        this.baseHash = this.itemStack.hashCode();
 
         if (itemStack.hasItemMeta()) {
             ItemMeta meta = itemStack.getItemMeta();
@@ -45,26 +55,35 @@ public class MenuItem {
     }
 
     public MenuItem setDisplayName(String displayName) {
+        checkNotFrozen();
         this.displayName = displayName;
+        invalidate();
         return this;
     }
 
     public MenuItem setLore(List<String> lore) {
+        checkNotFrozen();
         this.lore = new ArrayList<>(lore);
+        invalidate();
         return this;
     }
 
     public MenuItem addLoreLine(String line) {
+        checkNotFrozen();
         this.lore.add(line);
+        invalidate();
         return this;
     }
 
     public MenuItem setGlowing(boolean glowing) {
+        checkNotFrozen();
         this.glowing = glowing;
+        invalidate();
         return this;
     }
 
     public MenuItem setClickHandler(MenuClickHandler clickHandler) {
+        checkNotFrozen();
         this.clickHandler = clickHandler;
         return this;
     }
@@ -73,7 +92,55 @@ public class MenuItem {
         return clickHandler;
     }
 
+    /**
+     * Renders the item and makes it immutable, for sharing between menus. Click handlers
+     * of shared items are bound per slot with {@link Menu#setItem(int, MenuItem, MenuClickHandler)}.
+     */
+    public MenuItem freeze() {
+        toItemStack();
+        contentHash();
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Shared menu items cannot be modified");
+        }
+    }
+
+    /**
+     * Hash of everything that shows in the rendered item, computed without building it.
+     * Menus compare it with what a slot already shows to skip updates that change nothing.
+     */
+    public int contentHash() {
+        if (!hashValid) {
+            int hash = baseHash;
+            hash = 31 * hash + Objects.hashCode(displayName);
+            hash = 31 * hash + lore.hashCode();
+            hash = 31 * hash + (glowing ? 1 : 0);
+            renderedHash = hash;
+            hashValid = true;
+        }
+        return renderedHash;
+    }
+
+    /**
+     * The rendered item. It is built once and shared until a mutator is called, so it
+     * must not be modified; clone it first. Inventories copy the stack they are given.
+     */
     public ItemStack toItemStack() {
+        if (rendered == null) {
+            rendered = render();
+        }
+        return rendered;
+    }
+
+    private ItemStack render() {
         ItemStack result = itemStack.clone();
         ItemMeta meta = result.getItemMeta();
 
@@ -92,4 +159,12 @@ public class MenuItem {
 
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Drops the rendered form after a change to what the item shows
+     */
+    protected void invalidate() {
+        rendered = null;
+        hashValid = false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.rednetty.menu;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of shared, pre-rendered menu items. Borders and buttons that look the same
+ * in every menu are built once and shown by all of them; only their click handlers are
+ * bound per menu and slot.
+ */
+public final class MenuItems {
+    private static final Map<String, MenuItem> shared = new ConcurrentHashMap<>();
+    // Page buttons name their target page, so one is kept per page up to this number
+    private static final int MAX_SHARED_PAGE = 100;
+
+    public static final MenuItem BORDER = border(Material.GRAY_STAINED_GLASS_PANE, ChatColor.GRAY + " ");
+
+    private MenuItems() {
+    }
+
+    /**
+     * Returns the shared item for the key, building and freezing it on first use
+     */
+    public static MenuItem shared(String key, Supplier<MenuItem> factory) {
+        return shared.computeIfAbsent(key, k -> factory.get().freeze());
+    }
+
+    public static MenuItem border(Material material, String name) {
+        String displayName = name != null ? name : " ";
+        return shared("border:" + material.name() + ":" + displayName,
+                () -> new MenuItem(material, displayName));
+    }
+
+    /**
+     * Button leading to the given page, counted from 1
+     */
+    public static MenuItem previousPage(int page) {
+        return pageButton("Previous Page", page);
+    }
+
+    /**
+     * Button leading to the given page, counted from 1
+     */
+    public static MenuItem nextPage(int page) {
+        return pageButton("Next Page", page);
+    }
+
+    private static MenuItem pageButton(String label, int page) {
+        Supplier<MenuItem> factory = () -> new MenuItem(Material.ARROW, ChatColor.GREEN + label)
+                .addLoreLine(ChatColor.GRAY + "Go to page " + page);
+        return page <= MAX_SHARED_PAGE ? shared(label + ":" + page, factory) : factory.get().freeze();
+    }
+
+    public static int getSharedCount() {
+        return shared.size();
+    }
+}
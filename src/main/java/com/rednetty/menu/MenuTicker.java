@@ -0,0 +1,138 @@
+package com.rednetty.menu;
+
+import com.rednetty.PollPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Drives auto-refresh and animations of every open menu from one scheduler task, instead
+ * of a task per menu. Menus refreshing at the same interval share a bucket and fall due
+ * on the same tick; due menus are queued and refreshed until the tick's time budget is
+ * used up, and the rest carry over to the next tick. The task only runs while some menu
+ * is registered. Main thread only.
+ */
+final class MenuTicker {
+    private static final long ANIMATION_INTERVAL_TICKS = 5;
+
+    // Refresh interval in ticks -> menus refreshing at that interval
+    private final Map<Integer, Set<Menu>> refreshBuckets = new HashMap<>();
+    private final Map<Menu, Integer> refreshIntervals = new HashMap<>();
+    private final Set<Menu> animated = new LinkedHashSet<>();
+    private final Deque<Menu> dueRefreshes = new ArrayDeque<>();
+    private final Set<Menu> due = new HashSet<>();
+    private BukkitTask task;
+    private long tick = 0;
+    private long budgetNanos;
+
+    // Metrics
+    private long refreshes = 0;
+    private long skippedRefreshes = 0;
+    private long overBudgetTicks = 0;
+    private long maxTickNanos = 0;
+
+    void addRefresh(Menu menu, int intervalTicks) {
+        removeRefresh(menu);
+        refreshBuckets.computeIfAbsent(intervalTicks, interval -> new LinkedHashSet<>()).add(menu);
+        refreshIntervals.put(menu, intervalTicks);
+        start();
+    }
+
+    void removeRefresh(Menu menu) {
+        Integer interval = refreshIntervals.remove(menu);
+        if (interval != null) {
+            Set<Menu> bucket = refreshBuckets.get(interval);
+            bucket.remove(menu);
+            if (bucket.isEmpty()) {
+                refreshBuckets.remove(interval);
+            }
+        }
+        if (due.remove(menu)) {
+            dueRefreshes.remove(menu);
+        }
+    }
+
+    void addAnimations(Menu menu) {
+        animated.add(menu);
+        start();
+    }
+
+    void removeAnimations(Menu menu) {
+        animated.remove(menu);
+    }
+
+    private void start() {
+        if (task == null) {
+            budgetNanos = Math.max(0, PollPlugin.getInstance().getConfig().getLong("gui.refresh-budget-micros", 2000)) * 1000;
+            task = new BukkitRunnable() {
+                @Override
+                public void run() {
+                    tick();
+                }
+            }.runTaskTimer(PollPlugin.getInstance(), 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        if (refreshIntervals.isEmpty() && animated.isEmpty()) {
+            task.cancel();
+            task = null;
+            return;
+        }
+
+        long start = System.nanoTime();
+        tick++;
+
+        for (Map.Entry<Integer, Set<Menu>> bucket : refreshBuckets.entrySet()) {
+            if (tick % bucket.getKey() == 0) {
+                for (Menu menu : bucket.getValue()) {
+                    if (due.add(menu)) {
+                        dueRefreshes.add(menu);
+                    }
+                }
+            }
+        }
+
+        if (tick % ANIMATION_INTERVAL_TICKS == 0) {
+            // Copied, as a menu that is no longer open unregisters itself
+            for (Menu menu : new ArrayList<>(animated)) {
+                menu.tickAnimations();
+            }
+        }
+
+        // At least one refresh per tick, so a slow menu cannot stall the queue
+        long deadline = start + budgetNanos;
+        while (!dueRefreshes.isEmpty()) {
+            Menu menu = dueRefreshes.poll();
+            due.remove(menu);
+            if (menu.tickRefresh()) {
+                refreshes++;
+            } else {
+                skippedRefreshes++;
+            }
+
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        if (!dueRefreshes.isEmpty()) {
+            overBudgetTicks++;
+        }
+        maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - start);
+    }
+
+    Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("refreshingMenus", refreshIntervals.size());
+        stats.put("refreshBuckets", refreshBuckets.size());
+        stats.put("animatedMenus", animated.size());
+        stats.put("dueRefreshes", dueRefreshes.size());
+        stats.put("refreshes", refreshes);
+        stats.put("skippedRefreshes", skippedRefreshes);
+        stats.put("overBudgetTicks", overBudgetTicks);
+        stats.put("maxTickMs", maxTickNanos / 1_000_000.0);
+        return stats;
+    }
+}
@@ -0,0 +1,26 @@
+package com.rednetty.poll;
+
+/**
+ * What became of the votes appended to one poll by {@link PollStorage#appendVotes}
+ */
+public enum AppendOutcome {
+    /**
+     * Every vote is in storage, either appended now or already recorded before
+     */
+    STORED,
+
+    /**
+     * The poll is stored in the v1 schema, which takes no appends; it needs a full write
+     */
+    NEEDS_FULL_WRITE,
+
+    /**
+     * The poll is not in storage
+     */
+    NOT_FOUND,
+
+    /**
+     * The poll is stored but could not take the votes, which are not written; they should be kept and retried
+     */
+    FAILED
+}
@@ -0,0 +1,131 @@
+package com.rednetty.poll;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded least-recently-used cache of closed polls. A closed poll no longer changes, so
+ * it can be served from memory until it is deleted. Entries are weighted by their number
+ * of options and votes, and the cache evicts least recently used polls once either the
+ * entry count or the total weight exceeds its limit. Safe for concurrent use.
+ */
+public class ClosedPollCache {
+    private final int maxEntries;
+    private final long maxWeight;
+
+    // Guarded by this; access order makes iteration start at the least recently used poll
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+    // Bumped on every invalidation, so loads that started before it do not re-add the poll
+    private long generation = 0;
+
+    // Metrics
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param maxEntries maximum number of cached polls, 0 disables the cache
+     * @param maxWeight maximum total weight, roughly the number of votes held
+     */
+    public ClosedPollCache(int maxEntries, long maxWeight) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxWeight = Math.max(0, maxWeight);
+    }
+
+    public synchronized Poll get(UUID pollUUID) {
+        Entry entry = entries.get(pollUUID);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.poll;
+    }
+
+    /**
+     * Token to pass to {@link #put(Poll, long)} for a poll that is about to be loaded
+     */
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    /**
+     * Caches a closed poll. Active polls, and polls loaded before an invalidation that
+     * happened since the stamp was taken, are ignored.
+     */
+    public synchronized void put(Poll poll, long stamp) {
+        if (poll == null || poll.isActive() || stamp != generation || maxEntries == 0) {
+            return;
+        }
+
+        long pollWeight = weigh(poll);
+        if (pollWeight > maxWeight) {
+            return;
+        }
+
+        Entry previous = entries.put(poll.getPollUUID(), new Entry(poll, pollWeight));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += pollWeight;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && iterator.hasNext()) {
+            weight -= iterator.next().weight;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Caches a poll that was just closed in this process
+     */
+    public synchronized void put(Poll poll) {
+        put(poll, generation);
+    }
+
+    public synchronized void invalidate(UUID pollUUID) {
+        generation++;
+        Entry removed = entries.remove(pollUUID);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        long lookups = hits + misses;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("weight", weight);
+        stats.put("maxWeight", maxWeight);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups > 0 ? hits / (double) lookups : 0.0);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+
+    private static long weigh(Poll poll) {
+        return 1 + poll.getOptions().size() + poll.getTotalVotes();
+    }
+
+    private static final class Entry {
+        private final Poll poll;
+        private final long weight;
+
+        private Entry(Poll poll, long weight) {
+            this.poll = poll;
+            this.weight = weight;
+        }
+    }
+}
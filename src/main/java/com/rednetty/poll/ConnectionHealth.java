@@ -0,0 +1,138 @@
+package com.rednetty.poll;
+
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.event.ClusterDescriptionChangedEvent;
+import com.mongodb.event.ClusterListener;
+import com.mongodb.event.ServerHeartbeatFailedEvent;
+import com.mongodb.event.ServerHeartbeatSucceededEvent;
+import com.mongodb.event.ServerMonitorListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Tracks MongoDB liveness from driver monitoring events and the outcome of real
+ * operations, so storage calls can check health without a round trip. The driver
+ * keeps monitoring (and reconnecting to) the cluster in the background; this class
+ * only records what it observes.
+ */
+public class ConnectionHealth implements ClusterListener, ServerMonitorListener {
+
+    public enum State {
+        UNKNOWN,
+        UP,
+        DOWN
+    }
+
+    private final Logger logger;
+    private volatile State state = State.UNKNOWN;
+    private volatile long lastChangeMillis = System.currentTimeMillis();
+    private volatile String lastError;
+    private volatile boolean clusterWritable = false;
+    private final AtomicLong failures = new AtomicLong();
+
+    public ConnectionHealth(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Cheap, non-blocking health check
+     */
+    public boolean isHealthy() {
+        return state == State.UP;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getLastChangeMillis() {
+        return lastChangeMillis;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Records a successful operation against the database
+     */
+    public void recordSuccess() {
+        if (state != State.UP) {
+            transition(State.UP, null);
+        }
+    }
+
+    /**
+     * Records a failed operation. Only connectivity errors mark the connection as down;
+     * errors such as duplicate keys or validation failures say nothing about liveness.
+     */
+    public void recordFailure(Throwable error) {
+        if (isConnectivityError(error)) {
+            failures.incrementAndGet();
+            transition(State.DOWN, error.getMessage());
+        }
+    }
+
+    /**
+     * Marks the connection as down without an error, e.g. when storage is closed
+     */
+    public void markDown(String reason) {
+        transition(State.DOWN, reason);
+    }
+
+    private static boolean isConnectivityError(Throwable error) {
+        return error instanceof MongoSocketException || error instanceof MongoTimeoutException;
+    }
+
+    private synchronized void transition(State newState, String reason) {
+        State previous = state;
+        if (previous == newState) {
+            return;
+        }
+
+        state = newState;
+        lastChangeMillis = System.currentTimeMillis();
+        if (reason != null) {
+            lastError = reason;
+        }
+
+        if (newState == State.DOWN && previous == State.UP) {
+            logger.warning("MongoDB connection lost" + (reason != null ? ": " + reason : "") + " - the driver will keep trying to reconnect");
+        } else if (newState == State.UP && previous == State.DOWN) {
+            logger.info("MongoDB connection restored");
+        }
+    }
+
+    @Override
+    public void clusterDescriptionChanged(ClusterDescriptionChangedEvent event) {
+        clusterWritable = event.getNewDescription().hasWritableServer();
+        if (clusterWritable) {
+            transition(State.UP, null);
+        } else if (event.getPreviousDescription().hasWritableServer()) {
+            transition(State.DOWN, "no writable server available");
+        }
+    }
+
+    @Override
+    public void serverHeartbeatSucceeded(ServerHeartbeatSucceededEvent event) {
+        // Recovers from operation failures that did not change the cluster description
+        if (clusterWritable && state != State.UP) {
+            transition(State.UP, null);
+        }
+    }
+
+    @Override
+    public void serverHeartbeatFailed(ServerHeartbeatFailedEvent event) {
+        // A single member failing is reported through the cluster description if it matters
+        failures.incrementAndGet();
+        if (event.getThrowable() != null) {
+            lastError = event.getThrowable().getMessage();
+        }
+    }
+}
@@ -0,0 +1,814 @@
+package com.rednetty.poll;
+
+import com.rednetty.PollPlugin;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded storage in the plugin folder, for servers without MongoDB. Every poll is kept
+ * in memory as its encoded BSON document, with the fields queries filter on alongside,
+ * so reads never touch the disk and always return a fresh copy of the poll.
+ *
+ * Changes are appended to polls.log as checksummed records; small records are written
+ * for deletes and votes, whole polls for everything else. Votes are applied to a decoded
+ * copy of their poll, which is only encoded again when the poll is read or compacted, so
+ * a poll taking N votes is not re-encoded N times. The log is folded into
+ * polls.snapshot when it grows past file.compact-after-kb, every
+ * file.snapshot-interval-minutes and on shutdown. At startup both files are memory-mapped
+ * and replayed; a torn record at the end of the log, left by a crash mid-write, is cut off.
+ *
+ * Writes reach the OS on return, so they survive the server process dying. Set
+ * file.sync-writes to also force each write to the disk, at the cost of an fsync per write.
+ */
+public class FilePollStorage implements PollStorage {
+    private static final PollCodec CODEC = new PollCodec();
+    private static final int SNAPSHOT_MAGIC = 0x504F4C4C; // "POLL"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int RECORD_HEADER_BYTES = 8; // length + CRC32
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_DELETE = 2;
+    private static final byte RECORD_VOTE = 3;
+
+    private final PollPlugin plugin;
+    private final ConnectionHealth health;
+    private final Map<UUID, StoredPoll> polls = new ConcurrentHashMap<>();
+    private final StorageExecutor executor;
+
+    private final Path directory;
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final boolean syncWrites;
+    private final long compactAfterBytes;
+    private final int snapshotIntervalMinutes;
+
+    // Guarded by this
+    private FileChannel log;
+    private long logBytes;
+    private boolean compactionQueued;
+    private BukkitTask snapshotTask;
+    private volatile boolean open = false;
+
+    public FilePollStorage(PollPlugin plugin) {
+        this.plugin = plugin;
+        this.health = new ConnectionHealth(plugin.getLogger());
+
+        FileConfiguration config = plugin.getConfig();
+        config.addDefault("file.directory", "data");
+        config.addDefault("file.sync-writes", false);
+        config.addDefault("file.compact-after-kb", 8192);
+        config.addDefault("file.snapshot-interval-minutes", 10);
+        config.options().copyDefaults(true);
+        plugin.saveConfig();
+
+        this.directory = plugin.getDataFolder().toPath().resolve(config.getString("file.directory", "data"));
+        this.snapshotFile = directory.resolve("polls.snapshot");
+        this.logFile = directory.resolve("polls.log");
+        this.syncWrites = config.getBoolean("file.sync-writes", false);
+        this.compactAfterBytes = Math.max(64, config.getLong("file.compact-after-kb", 8192)) * 1024;
+        this.snapshotIntervalMinutes = Math.max(0, config.getInt("file.snapshot-interval-minutes", 10));
+        this.executor = new StorageExecutor(1, 1000);
+    }
+
+    @Override
+    public PollPlugin getPlugin() {
+        return plugin;
+    }
+
+    @Override
+    public String getStorageId() {
+        return "file:" + directory.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public synchronized boolean initialize() {
+        try {
+            Files.createDirectories(directory);
+
+            long started = System.currentTimeMillis();
+            int snapshotCount = loadSnapshot();
+            long validLogBytes = replayLog();
+
+            log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (log.size() > validLogBytes) {
+                plugin.getLogger().warning("Discarding " + (log.size() - validLogBytes) + " bytes of incomplete records at the end of " + logFile.getFileName());
+                log.truncate(validLogBytes);
+                log.force(true);
+            }
+            log.position(validLogBytes);
+            logBytes = validLogBytes;
+
+            if (snapshotIntervalMinutes > 0) {
+                long period = snapshotIntervalMinutes * 60L * 20L;
+                snapshotTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::compactIfDirty, period, period);
+            }
+
+            open = true;
+            health.recordSuccess();
+            plugin.getLogger().info("Loaded " + polls.size() + " polls from local storage (" + snapshotCount
+                    + " from snapshot) in " + (System.currentTimeMillis() - started) + "ms");
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open local poll storage in " + directory + ": " + e.getMessage());
+            closeLog();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return open;
+    }
+
+    @Override
+    public ConnectionHealth getConnectionHealth() {
+        return health;
+    }
+
+    @Override
+    public boolean testConnection() {
+        return open && log != null && log.isOpen();
+    }
+
+    @Override
+    public synchronized boolean savePoll(Poll poll) {
+        if (!open) {
+            plugin.getLogger().warning("Cannot save poll - local storage is closed");
+            return false;
+        }
+
+        if (poll == null) {
+            plugin.getLogger().warning("Cannot save null poll");
+            return false;
+        }
+
+        try {
+            StoredPoll stored = StoredPoll.of(poll);
+            append(RECORD_PUT, stored.bson());
+            polls.put(stored.pollUUID, stored);
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to save poll", e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean updatePoll(Poll poll) {
+        return savePoll(poll);
+    }
+
+    /**
+     * Applies the votes to the stored polls and logs each applied vote as a small record.
+     * The polls are re-encoded lazily, see {@link StoredPoll#addVote}.
+     */
+    @Override
+    public synchronized Map<UUID, AppendOutcome> appendVotes(List<VoteRecord> votes) {
+        if (!open) {
+            plugin.getLogger().warning("Cannot append votes - local storage is closed");
+            return null;
+        }
+
+        Map<UUID, AppendOutcome> outcomes = new HashMap<>();
+        if (votes == null || votes.isEmpty()) {
+            return outcomes;
+        }
+
+        try {
+            for (VoteRecord vote : votes) {
+                StoredPoll stored = polls.get(vote.getPollUUID());
+                if (stored == null) {
+                    outcomes.put(vote.getPollUUID(), AppendOutcome.NOT_FOUND);
+                    continue;
+                }
+
+                // An undecodable poll cannot take the vote, which must then stay in the vote journal
+                if (!stored.isDecodable()) {
+                    if (outcomes.put(vote.getPollUUID(), AppendOutcome.FAILED) != AppendOutcome.FAILED) {
+                        plugin.getLogger().warning("Cannot append votes to poll " + vote.getPollUUID() + " - its stored document cannot be decoded");
+                    }
+                    continue;
+                }
+
+                outcomes.put(vote.getPollUUID(), AppendOutcome.STORED);
+                // False for a vote the poll already has
+                if (stored.addVote(vote.getPlayerUUID(), vote.getOptionIndex())) {
+                    append(RECORD_VOTE, encodeVote(vote.getPollUUID(), vote.getPlayerUUID(), vote.getOptionIndex()));
+                }
+            }
+            return outcomes;
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to append votes", e);
+            return null;
+        }
+    }
+
+    @Override
+    public Poll getPoll(UUID pollUUID) {
+        if (!open || pollUUID == null) {
+            return null;
+        }
+
+        StoredPoll stored = polls.get(pollUUID);
+        return stored != null ? stored.decode() : null;
+    }
+
+    @Override
+    public synchronized boolean deletePoll(UUID pollUUID) {
+        if (!open || pollUUID == null) {
+            return false;
+        }
+
+        try {
+            if (polls.containsKey(pollUUID)) {
+                append(RECORD_DELETE, encodeId(pollUUID));
+                polls.remove(pollUUID);
+            }
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to delete poll " + pollUUID + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean pollExists(UUID pollUUID) {
+        return open && pollUUID != null && polls.containsKey(pollUUID);
+    }
+
+    @Override
+    public boolean forEachActivePoll(int batchSize, Consumer<? super Poll> visitor) {
+        return scanPolls(stored -> stored.active, visitor);
+    }
+
+    @Override
+    public boolean forEachPoll(int batchSize, Consumer<? super Poll> visitor) {
+        return scanPolls(stored -> true, visitor);
+    }
+
+    @Override
+    public boolean forEachPollByCreator(UUID creatorUUID, int batchSize, Consumer<? super Poll> visitor) {
+        if (creatorUUID == null) {
+            return false;
+        }
+        return scanPolls(stored -> creatorUUID.equals(stored.creatorUUID), visitor);
+    }
+
+    @Override
+    public List<UUID> getAllPollIds() {
+        return open ? new ArrayList<>(polls.keySet()) : new ArrayList<>();
+    }
+
+    @Override
+    public List<UUID> findPollIdsByPrefix(String prefix, int limit) {
+        List<UUID> result = new ArrayList<>();
+        if (!open || prefix == null || prefix.isEmpty()) {
+            return result;
+        }
+
+        String key = prefix.toLowerCase(Locale.ROOT);
+        for (UUID pollUUID : polls.keySet()) {
+            if (pollUUID.toString().startsWith(key)) {
+                result.add(pollUUID);
+                if (limit > 0 && result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long getActivePollCount() {
+        return count(stored -> stored.active);
+    }
+
+    @Override
+    public long getTotalPollCount() {
+        return open ? polls.size() : 0;
+    }
+
+    @Override
+    public PollPage getClosedPollPage(int page, int pageSize, UUID viewerUUID) {
+        long now = System.currentTimeMillis();
+        return findPollPage(stored -> stored.isClosed(now), page, pageSize, viewerUUID);
+    }
+
+    @Override
+    public PollPage getPollPageByCreator(UUID creatorUUID, int page, int pageSize) {
+        if (creatorUUID == null) {
+            return PollPage.empty(page, pageSize);
+        }
+        return findPollPage(stored -> creatorUUID.equals(stored.creatorUUID), page, pageSize, null);
+    }
+
+    @Override
+    public Map<UUID, Integer> getPlayerVotes(UUID playerUUID, Collection<UUID> pollUUIDs) {
+        Map<UUID, Integer> votes = new HashMap<>();
+        if (!open || playerUUID == null || pollUUIDs == null) {
+            return votes;
+        }
+
+        for (UUID pollUUID : pollUUIDs) {
+            StoredPoll stored = polls.get(pollUUID);
+            Poll poll = stored != null ? stored.decode() : null;
+            String vote = poll != null ? poll.getPlayerVote(playerUUID) : null;
+            if (vote != null) {
+                votes.put(pollUUID, poll.getOptions().indexOf(vote));
+            }
+        }
+        return votes;
+    }
+
+    @Override
+    public long countClosedPolls() {
+        long now = System.currentTimeMillis();
+        return count(stored -> stored.isClosed(now));
+    }
+
+    @Override
+    public long countClosedPollsByCreator(UUID creatorUUID) {
+        if (creatorUUID == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        return count(stored -> creatorUUID.equals(stored.creatorUUID) && stored.isClosed(now));
+    }
+
+    @Override
+    public synchronized long cleanupExpiredPolls() {
+        if (!open) {
+            return 0;
+        }
+
+        long closed = 0;
+        long now = System.currentTimeMillis();
+        for (StoredPoll stored : new ArrayList<>(polls.values())) {
+            if (!stored.active || stored.expiresAtMillis > now) {
+                continue;
+            }
+
+            Poll poll = stored.decode();
+            if (poll == null) {
+                continue;
+            }
+
+            poll.setActive(false);
+            if (savePoll(poll)) {
+                closed++;
+            }
+        }
+
+        if (closed > 0) {
+            plugin.getLogger().info("Cleaned up " + closed + " expired polls from local storage");
+        }
+        return closed;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return executor.supply(task);
+    }
+
+    @Override
+    public int getPendingAsyncCount() {
+        return executor.getQueuedCount();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown(plugin.getLogger());
+
+        synchronized (this) {
+            if (snapshotTask != null) {
+                snapshotTask.cancel();
+                snapshotTask = null;
+            }
+
+            if (open) {
+                compact();
+                open = false;
+            }
+            closeLog();
+        }
+        plugin.getLogger().info("Local poll storage closed");
+    }
+
+    /**
+     * Decodes matching polls one at a time, so only the encoded form of the others is held.
+     * The batch size does not apply, as there are no round trips to batch.
+     */
+    private boolean scanPolls(Predicate<StoredPoll> filter, Consumer<? super Poll> visitor) {
+        if (!open) {
+            return false;
+        }
+
+        for (StoredPoll stored : polls.values()) {
+            if (filter.test(stored)) {
+                Poll poll = stored.decode();
+                if (poll != null) {
+                    visitor.accept(poll);
+                }
+            }
+        }
+        return true;
+    }
+
+    private long count(Predicate<StoredPoll> filter) {
+        if (!open) {
+            return 0;
+        }
+        return polls.values().stream().filter(filter).count();
+    }
+
+    /**
+     * Filters and sorts on the stored fields, newest first, and decodes only the polls on the page
+     */
+    private PollPage findPollPage(Predicate<StoredPoll> filter, int page, int pageSize, UUID viewerUUID) {
+        int safePage = Math.max(0, page);
+        int safePageSize = Math.max(1, pageSize);
+        if (!open) {
+            return PollPage.empty(safePage, safePageSize);
+        }
+
+        List<StoredPoll> matches = new ArrayList<>();
+        for (StoredPoll stored : polls.values()) {
+            if (filter.test(stored)) {
+                matches.add(stored);
+            }
+        }
+
+        if (matches.isEmpty()) {
+            return PollPage.empty(safePage, safePageSize);
+        }
+
+        matches.sort(Comparator.comparingLong((StoredPoll stored) -> stored.createdAtMillis)
+                .thenComparing(stored -> stored.pollUUID.toString())
+                .reversed());
+
+        List<PollSummary> items = new ArrayList<>(safePageSize);
+        int from = (int) Math.min((long) safePage * safePageSize, matches.size());
+        int to = Math.min(from + safePageSize, matches.size());
+        for (StoredPoll stored : matches.subList(from, to)) {
+            Poll poll = stored.decode();
+            if (poll != null) {
+                items.add(PollSummary.of(poll, viewerUUID));
+            }
+        }
+        return new PollPage(items, safePage, safePageSize, matches.size());
+    }
+
+    private void compactIfDirty() {
+        synchronized (this) {
+            if (open && logBytes > 0) {
+                compact();
+            }
+        }
+    }
+
+    private void append(byte type, byte[] payload) throws IOException {
+        ByteBuffer record = frame(type, payload);
+        int size = record.remaining();
+        while (record.hasRemaining()) {
+            log.write(record);
+        }
+        if (syncWrites) {
+            log.force(false);
+        }
+        logBytes += size;
+
+        if (logBytes >= compactAfterBytes && !compactionQueued) {
+            compactionQueued = true;
+            executor.supply(() -> {
+                synchronized (this) {
+                    compactionQueued = false;
+                    if (open && logBytes >= compactAfterBytes) {
+                        compact();
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Writes every poll to a new snapshot, swaps it in atomically and empties the log.
+     * A crash in between leaves the old snapshot or the new one plus a log whose records
+     * are already contained in it; replaying them again is harmless.
+     */
+    private void compact() {
+        Path tempFile = directory.resolve("polls.snapshot.tmp");
+        try (FileChannel snapshot = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(12);
+            header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(polls.size()).flip();
+            writeFully(snapshot, header);
+            for (StoredPoll stored : polls.values()) {
+                writeFully(snapshot, frame(RECORD_PUT, stored.bson()));
+            }
+            snapshot.force(true);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to write poll snapshot: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.truncate(0);
+            log.position(0);
+            log.force(true);
+            logBytes = 0;
+
+            // Everything is encoded now, so the decoded copies that took votes can go
+            for (StoredPoll stored : polls.values()) {
+                stored.release();
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to install poll snapshot: " + e.getMessage());
+        }
+    }
+
+    private int loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile) || Files.size(snapshotFile) == 0) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException(snapshotFile.getFileName() + " is not a poll snapshot");
+            }
+
+            int expected = buffer.getInt();
+            replay(buffer);
+            if (polls.size() != expected) {
+                plugin.getLogger().warning("Poll snapshot holds " + polls.size() + " readable polls, expected " + expected);
+            }
+            return polls.size();
+        }
+    }
+
+    /**
+     * @return the length of the log up to the last complete record
+     */
+    private long replayLog() throws IOException {
+        if (!Files.exists(logFile) || Files.size(logFile) == 0) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return replay(buffer);
+        }
+    }
+
+    /**
+     * Applies records until the buffer ends or a record is incomplete or fails its checksum
+     *
+     * @return the position after the last record applied
+     */
+    private long replay(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        long validEnd = buffer.position();
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 1 || length > buffer.remaining()) {
+                break;
+            }
+
+            byte[] body = new byte[length];
+            buffer.get(body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            apply(ByteBuffer.wrap(body));
+            validEnd = buffer.position();
+        }
+        return validEnd;
+    }
+
+    private void apply(ByteBuffer body) {
+        byte type = body.get();
+        switch (type) {
+            case RECORD_PUT: {
+                byte[] bson = new byte[body.remaining()];
+                body.get(bson);
+                Poll poll = decode(bson);
+                if (poll != null) {
+                    polls.put(poll.getPollUUID(), new StoredPoll(poll, bson));
+                }
+                break;
+            }
+            case RECORD_DELETE:
+                polls.remove(new UUID(body.getLong(), body.getLong()));
+                break;
+            case RECORD_VOTE: {
+                UUID pollUUID = new UUID(body.getLong(), body.getLong());
+                UUID playerUUID = new UUID(body.getLong(), body.getLong());
+                int optionIndex = body.getInt();
+
+                // Applied to the decoded poll only; it is encoded once, when first read or compacted
+                StoredPoll stored = polls.get(pollUUID);
+                if (stored != null) {
+                    stored.addVote(playerUUID, optionIndex);
+                }
+                break;
+            }
+            default:
+                plugin.getLogger().warning("Skipping unknown record type " + type + " in local poll storage");
+                break;
+        }
+    }
+
+    /**
+     * Adds the vote unless the player already voted; counters are rebuilt by the caller
+     */
+    private static boolean applyVote(Poll poll, UUID playerUUID, int optionIndex) {
+        if (poll.hasVoted(playerUUID) || optionIndex < 0 || optionIndex >= poll.getOptions().size()) {
+            return false;
+        }
+        poll.loadVote(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits(), optionIndex);
+        return true;
+    }
+
+    private void closeLog() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.force(true);
+            log.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to close " + logFile.getFileName() + ": " + e.getMessage());
+        }
+        log = null;
+    }
+
+    private static ByteBuffer frame(byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + 1 + payload.length);
+        record.putInt(1 + payload.length).putInt((int) crc.getValue()).put(type).put(payload).flip();
+        return record;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] encodeId(UUID pollUUID) {
+        return ByteBuffer.allocate(16)
+                .putLong(pollUUID.getMostSignificantBits())
+                .putLong(pollUUID.getLeastSignificantBits())
+                .array();
+    }
+
+    private static byte[] encodeVote(UUID pollUUID, UUID playerUUID, int optionIndex) {
+        return ByteBuffer.allocate(36)
+                .putLong(pollUUID.getMostSignificantBits())
+                .putLong(pollUUID.getLeastSignificantBits())
+                .putLong(playerUUID.getMostSignificantBits())
+                .putLong(playerUUID.getLeastSignificantBits())
+                .putInt(optionIndex)
+                .array();
+    }
+
+    private static byte[] encode(Poll poll) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            CODEC.encode(writer, poll, EncoderContext.builder().build());
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Poll decode(byte[] bson) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bson))) {
+            return PollCodec.valid(CODEC.decode(reader, DecoderContext.builder().build()));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A poll as stored: its BSON document plus the fields queries filter and sort on.
+     * Votes are applied to a decoded copy of the poll, and the document is encoded from
+     * it again only when it is needed.
+     */
+    private static final class StoredPoll {
+        private final UUID pollUUID;
+        private final UUID creatorUUID;
+        private final long createdAtMillis;
+        private final long expiresAtMillis;
+        private final boolean active;
+
+        // Guarded by this; bson is null while votes applied to the decoded poll are not encoded yet
+        private byte[] bson;
+        private Poll decoded;
+
+        private StoredPoll(Poll poll, byte[] bson) {
+            this.pollUUID = poll.getPollUUID();
+            this.creatorUUID = poll.getCreatorUUID();
+            this.createdAtMillis = Poll.toDate(poll.getCreatedAt()).getTime();
+            this.expiresAtMillis = poll.getExpiresAtMillis();
+            this.active = poll.isActive();
+            this.bson = bson;
+        }
+
+        static StoredPoll of(Poll poll) {
+            return new StoredPoll(poll, encode(poll));
+        }
+
+        boolean isClosed(long now) {
+            return !active || expiresAtMillis <= now;
+        }
+
+        /**
+         * Adds the vote to the decoded poll, decoding it first if needed
+         *
+         * @return false if the player already voted or the poll cannot be decoded
+         */
+        synchronized boolean addVote(UUID playerUUID, int optionIndex) {
+            if (decoded == null && (decoded = FilePollStorage.decode(bson)) == null) {
+                return false;
+            }
+            if (!applyVote(decoded, playerUUID, optionIndex)) {
+                return false;
+            }
+            bson = null;
+            return true;
+        }
+
+        /**
+         * Decodes the poll if needed
+         *
+         * @return false if the stored document cannot be decoded
+         */
+        synchronized boolean isDecodable() {
+            if (decoded == null) {
+                decoded = FilePollStorage.decode(bson);
+            }
+            return decoded != null;
+        }
+
+        /**
+         * The poll's document, encoded from the decoded poll if it took votes since
+         */
+        synchronized byte[] bson() {
+            if (bson == null) {
+                decoded.finishLoadingVotes();
+                bson = encode(decoded);
+            }
+            return bson;
+        }
+
+        /**
+         * Drops the decoded poll once its votes are encoded, to free its memory
+         */
+        synchronized void release() {
+            if (bson != null) {
+                decoded = null;
+            }
+        }
+
+        Poll decode() {
+            return FilePollStorage.decode(bson());
+        }
+    }
+}
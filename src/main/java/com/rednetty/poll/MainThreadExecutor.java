@@ -0,0 +1,33 @@
+package com.rednetty.poll;
+
+import com.rednetty.PollPlugin;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on the server thread through the Bukkit scheduler, or immediately when
+ * already on it. Used to hand async storage results back to code that touches players,
+ * inventories or other Bukkit state.
+ */
+public final class MainThreadExecutor implements Executor {
+    public static final MainThreadExecutor INSTANCE = new MainThreadExecutor();
+
+    private MainThreadExecutor() {
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+            return;
+        }
+
+        PollPlugin plugin = PollPlugin.getInstance();
+        if (plugin == null || !plugin.isEnabled()) {
+            // The scheduler refuses tasks from a disabled plugin; there is nobody left to notify
+            return;
+        }
+        Bukkit.getScheduler().runTask(plugin, task);
+    }
+}
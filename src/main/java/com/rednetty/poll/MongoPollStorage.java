@@ -0,0 +1,570 @@
+package com.rednetty.poll;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.MongoException;
+import com.rednetty.PollPlugin;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * MongoDB backend on the synchronous driver. Every call blocks the calling thread for
+ * its round trip; the async API runs calls on a bounded pool of storage threads.
+ */
+public class MongoPollStorage implements PollStorage {
+    private final PollPlugin plugin;
+    private final MongoSettings settings;
+    private MongoClient mongoClient;
+    private MongoDatabase database;
+    private MongoCollection<Document> pollsCollection;
+    private MongoCollection<Poll> polls;
+    private volatile boolean connected = false;
+    private final ConnectionHealth health;
+
+    // Runs blocking driver calls for the async API, off the server thread
+    private final StorageExecutor executor;
+
+    public MongoPollStorage(PollPlugin plugin) {
+        this.plugin = plugin;
+        this.health = new ConnectionHealth(plugin.getLogger());
+        this.settings = MongoSettings.load(plugin);
+        this.executor = new StorageExecutor(settings.getAsyncThreads(), settings.getAsyncQueueSize());
+    }
+
+    @Override
+    public PollPlugin getPlugin() {
+        return plugin;
+    }
+
+    @Override
+    public String getStorageId() {
+        return settings.getStorageId();
+    }
+
+    @Override
+    public boolean initialize() {
+        return initializeWithRetry(settings.getMaxRetries());
+    }
+
+    private boolean initializeWithRetry(int retries) {
+        for (int attempt = 1; attempt <= retries; attempt++) {
+            try {
+                plugin.getLogger().info("Attempting to connect to MongoDB (attempt " + attempt + "/" + retries + ")");
+
+                // Connect to MongoDB
+                mongoClient = MongoClients.create(settings.toClientSettings(health));
+                database = mongoClient.getDatabase(settings.getDatabaseName());
+                pollsCollection = database.getCollection(settings.getCollectionName());
+                polls = database.getCollection(settings.getCollectionName(), Poll.class)
+                        .withCodecRegistry(MongoQueries.CODECS);
+
+                // Test the connection once; from here on liveness is tracked by ConnectionHealth
+                database.runCommand(new Document("ping", 1));
+                health.recordSuccess();
+                connected = true;
+
+                // Create indexes for better performance
+                createIndexes();
+
+                plugin.getLogger().info("Successfully connected to MongoDB database: " + settings.getDatabaseName());
+                return true;
+
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to connect to MongoDB (attempt " + attempt + "/" + retries + "): " + e.getMessage());
+                if (mongoClient != null) {
+                    mongoClient.close();
+                    mongoClient = null;
+                }
+
+                if (attempt < retries) {
+                    try {
+                        Thread.sleep(2000 * attempt); // Exponential backoff
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                } else {
+                    plugin.getLogger().severe("Failed to connect to MongoDB after " + retries + " attempts");
+                    plugin.getLogger().severe("Connection string: " + settings.getConnectionString());
+                    plugin.getLogger().severe("Database: " + settings.getDatabaseName());
+                    plugin.getLogger().severe("Last error: " + e.getMessage());
+                }
+            }
+        }
+
+        connected = false;
+        return false;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected && health.isHealthy();
+    }
+
+    @Override
+    public ConnectionHealth getConnectionHealth() {
+        return health;
+    }
+
+    @Override
+    public boolean savePoll(Poll poll) {
+        if (!isConnected()) {
+            plugin.getLogger().warning("Cannot save poll - not connected to database");
+            return false;
+        }
+
+        if (poll == null) {
+            plugin.getLogger().warning("Cannot save null poll");
+            return false;
+        }
+
+        try {
+            polls.replaceOne(
+                    MongoQueries.idFilter(poll.getPollUUID()),
+                    poll,
+                    new ReplaceOptions().upsert(true)
+            );
+            return true;
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while saving poll: " + e.getMessage());
+            health.recordFailure(e);
+            return false;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to save poll: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean updatePoll(Poll poll) {
+        return savePoll(poll); // MongoDB upsert handles both insert and update
+    }
+
+    /**
+     * Each vote is a targeted update that pushes the vote and increments its option
+     * counter (see {@link MongoQueries#appendVoteUpdates}). All votes are sent in one bulk write.
+     */
+    @Override
+    public Map<UUID, AppendOutcome> appendVotes(List<VoteRecord> votes) {
+        if (!isConnected()) {
+            plugin.getLogger().warning("Cannot append votes - not connected to database");
+            return null;
+        }
+
+        if (votes == null || votes.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        try {
+            BulkWriteResult result = pollsCollection.bulkWrite(MongoQueries.appendVoteUpdates(votes), new BulkWriteOptions().ordered(false));
+            if (result.getModifiedCount() == votes.size()) {
+                return MongoQueries.allStored(votes);
+            }
+
+            // Some votes were skipped; the schema versions tell which polls still need a full write
+            List<Document> versions = pollsCollection.find(Filters.in("_id", MongoQueries.votePollIds(votes)))
+                    .projection(Projections.include("schemaVersion"))
+                    .into(new ArrayList<>());
+            return MongoQueries.appendOutcomes(votes, versions);
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while appending votes: " + e.getMessage());
+            health.recordFailure(e);
+            return null;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to append votes: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return executor.supply(task);
+    }
+
+    @Override
+    public int getPendingAsyncCount() {
+        return executor.getQueuedCount();
+    }
+
+    @Override
+    public Poll getPoll(UUID pollUUID) {
+        if (!isConnected() || pollUUID == null) {
+            return null;
+        }
+
+        try {
+            return PollCodec.valid(polls.find(MongoQueries.idFilter(pollUUID)).first());
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while getting poll: " + e.getMessage());
+            health.recordFailure(e);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to get poll " + pollUUID + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean forEachActivePoll(int batchSize, Consumer<? super Poll> visitor) {
+        return scanPolls(MongoQueries.activeFilter(), batchSize, visitor, "active polls");
+    }
+
+    @Override
+    public boolean forEachPoll(int batchSize, Consumer<? super Poll> visitor) {
+        return scanPolls(new Document(), batchSize, visitor, "all polls");
+    }
+
+    @Override
+    public List<UUID> getAllPollIds() {
+        return findPollIds(new Document(), 0);
+    }
+
+    /**
+     * The anchored regex is answered from the _id index
+     */
+    @Override
+    public List<UUID> findPollIdsByPrefix(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return findPollIds(MongoQueries.idPrefixFilter(prefix), limit);
+    }
+
+    private List<UUID> findPollIds(Bson filter, int limit) {
+        List<UUID> result = new ArrayList<>();
+        if (!isConnected()) {
+            return result;
+        }
+
+        try {
+            pollsCollection.find(filter)
+                    .projection(Projections.include("_id"))
+                    .limit(limit)
+                    .forEach(document -> {
+                        try {
+                            result.add(Poll.readUuid(document.get("_id")));
+                        } catch (Exception e) {
+                            plugin.getLogger().warning("Skipping poll with invalid ID: " + document.get("_id"));
+                        }
+                    });
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while loading poll IDs: " + e.getMessage());
+            health.recordFailure(e);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load poll IDs: " + e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean deletePoll(UUID pollUUID) {
+        if (!isConnected() || pollUUID == null) {
+            return false;
+        }
+
+        try {
+            pollsCollection.deleteOne(MongoQueries.idFilter(pollUUID));
+            return true;
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while deleting poll: " + e.getMessage());
+            health.recordFailure(e);
+            return false;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to delete poll " + pollUUID + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean pollExists(UUID pollUUID) {
+        if (!isConnected() || pollUUID == null) {
+            return false;
+        }
+
+        try {
+            return pollsCollection.countDocuments(MongoQueries.idFilter(pollUUID)) > 0;
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while checking poll existence: " + e.getMessage());
+            health.recordFailure(e);
+            return false;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to check if poll exists: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public long getActivePollCount() {
+        if (!isConnected()) {
+            return 0;
+        }
+
+        try {
+            return pollsCollection.countDocuments(MongoQueries.activeFilter());
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while counting active polls: " + e.getMessage());
+            health.recordFailure(e);
+            return 0;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to count active polls: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    @Override
+    public long getTotalPollCount() {
+        if (!isConnected()) {
+            return 0;
+        }
+        try {
+            return pollsCollection.countDocuments();
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while counting total polls: " + e.getMessage());
+            health.recordFailure(e);
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean forEachPollByCreator(UUID creatorUUID, int batchSize, Consumer<? super Poll> visitor) {
+        if (creatorUUID == null) {
+            return false;
+        }
+        return scanPolls(MongoQueries.creatorFilter(creatorUUID), batchSize, visitor, "polls by creator " + creatorUUID);
+    }
+
+    /**
+     * Streams the polls matching the filter through a cursor, one batch in memory at a time
+     */
+    private boolean scanPolls(Bson filter, int batchSize, Consumer<? super Poll> visitor, String description) {
+        if (!isConnected()) {
+            plugin.getLogger().warning("Cannot scan " + description + " - not connected to database");
+            return false;
+        }
+
+        try (MongoCursor<Poll> cursor = polls.find(filter)
+                .batchSize(batchSize > 0 ? batchSize : settings.getBatchSize())
+                .iterator()) {
+            while (cursor.hasNext()) {
+                // Malformed documents are skipped
+                Poll poll = PollCodec.valid(cursor.next());
+                if (poll != null) {
+                    visitor.accept(poll);
+                }
+            }
+            return true;
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while scanning " + description + ": " + e.getMessage());
+            health.recordFailure(e);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to scan " + description + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    @Override
+    public PollPage getClosedPollPage(int page, int pageSize, UUID viewerUUID) {
+        return findPollPage(MongoQueries.closedFilter(), page, pageSize, viewerUUID);
+    }
+
+    @Override
+    public PollPage getPollPageByCreator(UUID creatorUUID, int page, int pageSize) {
+        if (creatorUUID == null) {
+            return PollPage.empty(page, pageSize);
+        }
+        return findPollPage(MongoQueries.creatorFilter(creatorUUID), page, pageSize, null);
+    }
+
+    @Override
+    public Map<UUID, Integer> getPlayerVotes(UUID playerUUID, Collection<UUID> pollUUIDs) {
+        Map<UUID, Integer> votes = new HashMap<>();
+        if (!isConnected() || playerUUID == null || pollUUIDs == null || pollUUIDs.isEmpty()) {
+            return votes;
+        }
+
+        try {
+            pollsCollection.aggregate(MongoQueries.playerVotesPipeline(playerUUID, pollUUIDs))
+                    .forEach(document -> MongoQueries.readPlayerVote(document, votes));
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while loading player votes: " + e.getMessage());
+            health.recordFailure(e);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load player votes: " + e.getMessage());
+        }
+        return votes;
+    }
+
+    @Override
+    public long countClosedPolls() {
+        return countPolls(MongoQueries.closedFilter());
+    }
+
+    @Override
+    public long countClosedPollsByCreator(UUID creatorUUID) {
+        if (creatorUUID == null) {
+            return 0;
+        }
+        return countPolls(MongoQueries.closedByCreatorFilter(creatorUUID));
+    }
+
+    private long countPolls(Bson filter) {
+        if (!isConnected()) {
+            return 0;
+        }
+
+        try {
+            return pollsCollection.countDocuments(filter);
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while counting closed polls: " + e.getMessage());
+            health.recordFailure(e);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to count closed polls: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Runs a paginated query on the server: filter, sort, skip/limit and a projection that
+     * leaves out the votes, plus a count of the matching polls.
+     */
+    private PollPage findPollPage(Bson filter, int page, int pageSize, UUID viewerUUID) {
+        int safePage = Math.max(0, page);
+        int safePageSize = Math.max(1, pageSize);
+        if (!isConnected()) {
+            plugin.getLogger().warning("Cannot load polls - not connected to database");
+            return PollPage.empty(safePage, safePageSize);
+        }
+
+        try {
+            long totalCount = pollsCollection.countDocuments(filter);
+            if (totalCount == 0) {
+                return PollPage.empty(safePage, safePageSize);
+            }
+
+            List<PollSummary> items = new ArrayList<>(safePageSize);
+            pollsCollection.aggregate(MongoQueries.pagePipeline(filter, safePage, safePageSize, viewerUUID)).forEach(document -> {
+                try {
+                    items.add(PollSummary.fromDocument(document));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to parse poll summary from document: " + e.getMessage());
+                }
+            });
+
+            return new PollPage(items, safePage, safePageSize, totalCount);
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error while loading poll page: " + e.getMessage());
+            health.recordFailure(e);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load poll page: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return PollPage.empty(safePage, safePageSize);
+    }
+
+    @Override
+    public void close() {
+        // Let queued async calls finish while the client is still open
+        executor.shutdown(plugin.getLogger());
+
+        try {
+            connected = false;
+            health.markDown("storage closed");
+            if (mongoClient != null) {
+                mongoClient.close();
+                plugin.getLogger().info("MongoDB connection closed");
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to close MongoDB connection: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Utility methods for database maintenance
+    public boolean createIndexes() {
+        if (!isConnected()) {
+            return false;
+        }
+
+        try {
+            pollsCollection.createIndexes(MongoQueries.indexes());
+
+            plugin.getLogger().info("MongoDB indexes created successfully");
+            return true;
+        } catch (MongoException e) {
+            plugin.getLogger().warning("MongoDB error while creating indexes: " + e.getMessage());
+            health.recordFailure(e);
+            return false;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to create MongoDB indexes: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean testConnection() {
+        try {
+            if (database == null) {
+                return false;
+            }
+            database.runCommand(new Document("ping", 1));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs as one set-based updateMany over the active/expiresAt index, so the cost is a
+     * single round trip however many polls expired
+     */
+    @Override
+    public long cleanupExpiredPolls() {
+        if (!isConnected()) {
+            return 0;
+        }
+
+        try {
+            long updated = pollsCollection.updateMany(
+                    MongoQueries.activeExpiredFilter(),
+                    MongoQueries.closeUpdate()
+            ).getModifiedCount();
+
+            if (updated > 0) {
+                plugin.getLogger().info("Cleaned up " + updated + " expired polls from database");
+            }
+
+            return updated;
+        } catch (MongoException e) {
+            plugin.getLogger().severe("MongoDB error during cleanup: " + e.getMessage());
+            health.recordFailure(e);
+            return 0;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error during poll cleanup: " + e.getMessage());
+            return 0;
+        }
+    }
+}
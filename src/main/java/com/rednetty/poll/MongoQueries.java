@@ -0,0 +1,276 @@
+package com.rednetty.poll;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Filters, pipelines and index definitions for the polls collection, shared by the
+ * sync and reactive MongoDB backends so both issue exactly the same queries.
+ */
+final class MongoQueries {
+    /**
+     * Codec registry for reading and writing {@link Poll} directly
+     */
+    static final CodecRegistry CODECS = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new PollCodec()),
+            MongoClientSettings.getDefaultCodecRegistry());
+
+    private MongoQueries() {
+    }
+
+    static Bson idFilter(UUID pollUUID) {
+        return Filters.eq("_id", pollUUID.toString());
+    }
+
+    /**
+     * Anchored regex on _id, answered from the _id index
+     */
+    static Bson idPrefixFilter(String prefix) {
+        return Filters.regex("_id", "^" + Pattern.quote(prefix.toLowerCase(Locale.ROOT)));
+    }
+
+    static Bson activeFilter() {
+        return Filters.eq("active", true);
+    }
+
+    /**
+     * Closed polls; expired polls still flagged active count as closed
+     */
+    static Bson closedFilter() {
+        return Filters.or(Filters.eq("active", false), expiredFilter());
+    }
+
+    static Bson expiredFilter() {
+        // BSON only compares values of the same type, so v2 dates and v1 ISO strings need separate clauses
+        LocalDateTime now = LocalDateTime.now();
+        return Filters.or(
+                Filters.lt("expiresAt", Poll.toDate(now)),
+                Filters.lt("expiresAt", now.toString())
+        );
+    }
+
+    static Bson activeExpiredFilter() {
+        return Filters.and(activeFilter(), expiredFilter());
+    }
+
+    static Bson creatorFilter(UUID creatorUUID) {
+        // Match both the binary (v2) and string (v1) forms until every poll is migrated
+        return Filters.in("creatorUUID", creatorUUID, creatorUUID.toString());
+    }
+
+    static Bson closedByCreatorFilter(UUID creatorUUID) {
+        return Filters.and(creatorFilter(creatorUUID), closedFilter());
+    }
+
+    static Bson closeUpdate() {
+        return Updates.set("active", false);
+    }
+
+    /**
+     * One targeted update per vote: pushes the vote and increments its option counter,
+     * guarded so a player's vote is never recorded twice and v1 documents are left alone
+     */
+    static List<UpdateOneModel<Document>> appendVoteUpdates(List<VoteRecord> votes) {
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(votes.size());
+        for (VoteRecord vote : votes) {
+            updates.add(new UpdateOneModel<>(
+                    Filters.and(
+                            Filters.eq("_id", vote.getPollUUID().toString()),
+                            Filters.eq("schemaVersion", Poll.SCHEMA_VERSION),
+                            Filters.ne("voters", vote.getPlayerUUID())
+                    ),
+                    Updates.combine(
+                            Updates.push("voters", vote.getPlayerUUID()),
+                            Updates.push("choices", vote.getOptionIndex()),
+                            Updates.inc("tallies." + vote.getOptionIndex(), 1)
+                    )
+            ));
+        }
+        return updates;
+    }
+
+    /**
+     * IDs of the polls the votes belong to, in the form stored in _id
+     */
+    static List<Object> votePollIds(List<VoteRecord> votes) {
+        Set<Object> ids = new LinkedHashSet<>();
+        for (VoteRecord vote : votes) {
+            ids.add(vote.getPollUUID().toString());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Outcome of an append where every vote was applied
+     */
+    static Map<UUID, AppendOutcome> allStored(List<VoteRecord> votes) {
+        Map<UUID, AppendOutcome> outcomes = new HashMap<>();
+        for (VoteRecord vote : votes) {
+            outcomes.put(vote.getPollUUID(), AppendOutcome.STORED);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Works out the outcome per poll from the schema versions of its stored documents.
+     * The append only skips a vote on a v2 document if the player already voted, so
+     * those polls hold every vote.
+     *
+     * @param versions documents of the polls, projected to their schemaVersion
+     */
+    static Map<UUID, AppendOutcome> appendOutcomes(List<VoteRecord> votes, Collection<Document> versions) {
+        Map<String, Integer> schemaVersions = new HashMap<>();
+        for (Document document : versions) {
+            schemaVersions.put(String.valueOf(document.get("_id")), document.getInteger("schemaVersion", 1));
+        }
+
+        Map<UUID, AppendOutcome> outcomes = new HashMap<>();
+        for (VoteRecord vote : votes) {
+            Integer version = schemaVersions.get(vote.getPollUUID().toString());
+            outcomes.put(vote.getPollUUID(), version == null ? AppendOutcome.NOT_FOUND
+                    : version >= Poll.SCHEMA_VERSION ? AppendOutcome.STORED : AppendOutcome.NEEDS_FULL_WRITE);
+        }
+        return outcomes;
+    }
+
+    /**
+     * One page of summaries: filter, sort newest first, skip/limit and a projection that
+     * leaves out the votes
+     */
+    static List<Bson> pagePipeline(Bson filter, int page, int pageSize, UUID viewerUUID) {
+        return Arrays.asList(
+                Aggregates.match(filter),
+                Aggregates.sort(Sorts.descending("createdAt", "_id")),
+                Aggregates.skip(page * pageSize),
+                Aggregates.limit(pageSize),
+                Aggregates.project(summaryProjection(viewerUUID))
+        );
+    }
+
+    /**
+     * Projection for poll summaries. Votes are replaced by the stored counters; v1
+     * documents without counters get theirs computed on the server.
+     */
+    static Document summaryProjection(UUID viewerUUID) {
+        Document legacyTallies = new Document("$map", new Document("input", "$options")
+                .append("as", "option")
+                .append("in", sizeOf(new Document("$filter", new Document("input", new Document("$ifNull", Arrays.asList("$votes", new ArrayList<>())))
+                        .append("cond", new Document("$eq", Arrays.asList("$$this.option", "$$option")))))));
+
+        Document projection = new Document("creatorUUID", 1)
+                .append("question", 1)
+                .append("options", 1)
+                .append("createdAt", 1)
+                .append("expiresAt", 1)
+                .append("active", 1)
+                .append("tallies", new Document("$ifNull", Arrays.asList("$tallies", legacyTallies)));
+
+        if (viewerUUID != null) {
+            projection.append("viewerVote", viewerVoteExpression(viewerUUID));
+        }
+
+        return projection;
+    }
+
+    /**
+     * The option index a player voted for, or -1
+     */
+    private static Document viewerVoteExpression(UUID viewerUUID) {
+        // Position of the viewer in voters selects their choice; v1 documents match on the vote list
+        Document voterIndex = new Document("$indexOfArray", Arrays.asList(
+                new Document("$ifNull", Arrays.asList("$voters", new ArrayList<>())), viewerUUID));
+        Document legacyVote = new Document("$filter", new Document("input", new Document("$ifNull", Arrays.asList("$votes", new ArrayList<>())))
+                .append("cond", new Document("$eq", Arrays.asList("$$this.playerUUID", viewerUUID.toString()))));
+
+        return new Document("$let", new Document("vars", new Document("index", voterIndex))
+                .append("in", new Document("$cond", Arrays.asList(
+                        new Document("$gte", Arrays.asList("$$index", 0)),
+                        new Document("$arrayElemAt", Arrays.asList("$choices", "$$index")),
+                        new Document("$indexOfArray", Arrays.asList("$options",
+                                new Document("$arrayElemAt", Arrays.asList(
+                                        new Document("$map", new Document("input", legacyVote).append("in", "$$this.option")), 0))))
+                ))));
+    }
+
+    /**
+     * The player's vote on each of the given polls they voted on, in a "viewerVote" field
+     */
+    static List<Bson> playerVotesPipeline(UUID playerUUID, Collection<UUID> pollUUIDs) {
+        List<Object> ids = new ArrayList<>(pollUUIDs.size());
+        for (UUID pollUUID : pollUUIDs) {
+            ids.add(pollUUID.toString());
+        }
+
+        return Arrays.asList(
+                Aggregates.match(Filters.and(
+                        Filters.in("_id", ids),
+                        Filters.or(Filters.eq("voters", playerUUID), Filters.eq("votes.playerUUID", playerUUID.toString()))
+                )),
+                Aggregates.project(new Document("viewerVote", viewerVoteExpression(playerUUID)))
+        );
+    }
+
+    /**
+     * Adds the vote read from a {@link #playerVotesPipeline} result to the map
+     */
+    static void readPlayerVote(Document document, Map<UUID, Integer> votes) {
+        Object vote = document.get("viewerVote");
+        if (vote instanceof Number && ((Number) vote).intValue() >= 0) {
+            votes.put(Poll.readUuid(document.get("_id")), ((Number) vote).intValue());
+        }
+    }
+
+    private static Document sizeOf(Object arrayExpression) {
+        return new Document("$size", new Document("$ifNull", Arrays.asList(arrayExpression, new ArrayList<>())));
+    }
+
+    static List<IndexModel> indexes() {
+        return Arrays.asList(
+                // Index on active field for faster queries
+                new IndexModel(new Document("active", 1), new IndexOptions().name("active_index")),
+
+                // Index on creatorUUID for faster creator queries
+                new IndexModel(new Document("creatorUUID", 1), new IndexOptions().name("creator_index")),
+
+                // Index on expiresAt for cleanup operations
+                new IndexModel(new Document("expiresAt", 1), new IndexOptions().name("expires_index")),
+
+                // Compound index for active polls by creator
+                new IndexModel(new Document("active", 1).append("creatorUUID", 1),
+                        new IndexOptions().name("active_creator_index")),
+
+                // Compound index for the expiry sweep over active polls
+                new IndexModel(new Document("active", 1).append("expiresAt", 1),
+                        new IndexOptions().name("active_expires_index")),
+
+                // Compound indexes backing the newest-first paginated queries
+                new IndexModel(new Document("active", 1).append("createdAt", -1).append("_id", -1),
+                        new IndexOptions().name("active_created_index")),
+                new IndexModel(new Document("creatorUUID", 1).append("createdAt", -1).append("_id", -1),
+                        new IndexOptions().name("creator_created_index"))
+        );
+    }
+}
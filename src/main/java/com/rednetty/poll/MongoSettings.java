@@ -0,0 +1,139 @@
+package com.rednetty.poll;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.rednetty.PollPlugin;
+import org.bson.UuidRepresentation;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mongodb section of config.yml, shared by the sync and reactive MongoDB backends
+ */
+final class MongoSettings {
+    // Default MongoDB settings
+    private String connectionString = "mongodb://localhost:27017";
+    private String databaseName = "pollplugin";
+    private String collectionName = "polls";
+    private int connectionTimeoutMs = 10000;
+    private int socketTimeoutMs = 30000;
+    private int maxRetries = 3;
+    private int heartbeatFrequencyMs = 10000;
+    private int asyncThreads = 4;
+    private int asyncQueueSize = 1000;
+    private int batchSize = 100;
+
+    private MongoSettings() {
+    }
+
+    static MongoSettings load(PollPlugin plugin) {
+        MongoSettings settings = new MongoSettings();
+        FileConfiguration config = plugin.getConfig();
+
+        // Set default values if not present
+        config.addDefault("mongodb.connection-string", settings.connectionString);
+        config.addDefault("mongodb.database", settings.databaseName);
+        config.addDefault("mongodb.collection", settings.collectionName);
+        config.addDefault("mongodb.connection-timeout-ms", settings.connectionTimeoutMs);
+        config.addDefault("mongodb.socket-timeout-ms", settings.socketTimeoutMs);
+        config.addDefault("mongodb.max-retries", settings.maxRetries);
+        config.addDefault("mongodb.heartbeat-frequency-ms", settings.heartbeatFrequencyMs);
+        config.addDefault("mongodb.async-threads", settings.asyncThreads);
+        config.addDefault("mongodb.async-queue-size", settings.asyncQueueSize);
+        config.addDefault("mongodb.batch-size", settings.batchSize);
+        config.options().copyDefaults(true);
+        plugin.saveConfig();
+
+        // Load values from config
+        settings.connectionString = config.getString("mongodb.connection-string", settings.connectionString);
+        settings.databaseName = config.getString("mongodb.database", settings.databaseName);
+        settings.collectionName = config.getString("mongodb.collection", settings.collectionName);
+        settings.connectionTimeoutMs = config.getInt("mongodb.connection-timeout-ms", settings.connectionTimeoutMs);
+        settings.socketTimeoutMs = config.getInt("mongodb.socket-timeout-ms", settings.socketTimeoutMs);
+        settings.maxRetries = config.getInt("mongodb.max-retries", settings.maxRetries);
+        settings.heartbeatFrequencyMs = config.getInt("mongodb.heartbeat-frequency-ms", settings.heartbeatFrequencyMs);
+        settings.asyncThreads = Math.max(1, config.getInt("mongodb.async-threads", settings.asyncThreads));
+        settings.asyncQueueSize = Math.max(1, config.getInt("mongodb.async-queue-size", settings.asyncQueueSize));
+        settings.batchSize = Math.max(1, config.getInt("mongodb.batch-size", settings.batchSize));
+
+        // Validate configuration
+        if (settings.connectionString == null || settings.connectionString.trim().isEmpty()) {
+            plugin.getLogger().warning("Invalid MongoDB connection string, using default");
+            settings.connectionString = "mongodb://localhost:27017";
+        }
+        if (settings.databaseName == null || settings.databaseName.trim().isEmpty()) {
+            plugin.getLogger().warning("Invalid database name, using default");
+            settings.databaseName = "pollplugin";
+        }
+        if (settings.collectionName == null || settings.collectionName.trim().isEmpty()) {
+            plugin.getLogger().warning("Invalid collection name, using default");
+            settings.collectionName = "polls";
+        }
+        return settings;
+    }
+
+    /**
+     * Builds the driver settings, reporting cluster and heartbeat events to the given health tracker
+     */
+    MongoClientSettings toClientSettings(ConnectionHealth health) {
+        return MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .uuidRepresentation(UuidRepresentation.STANDARD)
+                .applyToSocketSettings(builder ->
+                        builder.connectTimeout(connectionTimeoutMs, TimeUnit.MILLISECONDS)
+                                .readTimeout(socketTimeoutMs, TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(builder -> builder.addClusterListener(health))
+                .applyToServerSettings(builder ->
+                        builder.addServerMonitorListener(health)
+                                .heartbeatFrequency(heartbeatFrequencyMs, TimeUnit.MILLISECONDS))
+                .build();
+    }
+
+    /**
+     * Hosts, database and collection, without credentials or options
+     */
+    String getStorageId() {
+        return "mongodb://" + String.join(",", new ConnectionString(connectionString).getHosts())
+                + "/" + databaseName + "." + collectionName;
+    }
+
+    String getConnectionString() {
+        return connectionString;
+    }
+
+    String getDatabaseName() {
+        return databaseName;
+    }
+
+    String getCollectionName() {
+        return collectionName;
+    }
+
+    int getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    int getSocketTimeoutMs() {
+        return socketTimeoutMs;
+    }
+
+    int getMaxRetries() {
+        return maxRetries;
+    }
+
+    int getAsyncThreads() {
+        return asyncThreads;
+    }
+
+    int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    /**
+     * Number of documents fetched per cursor batch when scanning polls
+     */
+    int getBatchSize() {
+        return batchSize;
+    }
+}
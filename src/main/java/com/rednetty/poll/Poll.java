@@ -1,23 +1,38 @@
 package com.rednetty.poll;
 
-import org.bson.Document;
+import org.bson.BsonBinarySubType;
+import org.bson.types.Binary;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
+/**
+ * A poll and its votes. Polls are shared between the main thread, the vote writer and
+ * storage threads: vote state is guarded by the poll's monitor so readers always see a
+ * consistent snapshot, and the remaining mutable fields are volatile.
+ */
 public class Poll {
+    /**
+     * Current on-disk schema version written by {@link PollCodec}
+     */
+    public static final int SCHEMA_VERSION = 2;
+
     private final UUID pollUUID;
     private final UUID creatorUUID;
-    private String question;
-    private List<String> options = new ArrayList<>();
-    private Map<UUID, String> votes = new HashMap<>(); // Player UUID -> chosen option
-    private LocalDateTime createdAt;
-    private LocalDateTime expiresAt;
-    private boolean active;
+    private volatile String question;
+    private volatile List<String> options = Collections.emptyList(); // Replaced, never mutated in place
+    private final VoteTable votes = new VoteTable(); // Player UUID -> option ordinal, guarded by this
+    private int[] tallies = new int[0]; // Votes per option, indexed like options, guarded by this
+    private final LocalDateTime createdAt;
+    private volatile LocalDateTime expiresAt;
+    private volatile long expiresAtMillis = Long.MAX_VALUE; // Epoch millis of expiresAt, for clock checks without allocation
+    private volatile boolean active; // Cleared at the deadline by PollExpiryScheduler, or when closed
 
     // Cached values for performance
     private transient String cachedCreatorName;
@@ -45,7 +60,7 @@ public class Poll {
         this.creatorUUID = creatorUUID;
         this.question = question.trim();
         this.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
-        this.expiresAt = expiresAt;
+        setExpiresAt(expiresAt);
         this.active = active;
     }
 
@@ -73,20 +88,29 @@ public class Poll {
         return new ArrayList<>(options);
     }
 
-    public void setOptions(List<String> options) {
-        if (options == null) {
-            this.options = new ArrayList<>();
-        } else {
-            this.options = new ArrayList<>();
+    public synchronized void setOptions(List<String> options) {
+        List<String> cleaned = new ArrayList<>();
+        if (options != null) {
             for (String option : options) {
                 if (option != null && !option.trim().isEmpty()) {
-                    this.options.add(option.trim());
+                    cleaned.add(option.trim());
                 }
             }
         }
+        // Carry existing votes over to the new option positions, dropping votes for removed options
+        if (!votes.isEmpty()) {
+            int[] mapping = new int[this.options.size()];
+            for (int i = 0; i < mapping.length; i++) {
+                mapping[i] = cleaned.indexOf(this.options.get(i));
+            }
+            votes.remap(mapping);
+        }
+
+        this.options = Collections.unmodifiableList(cleaned);
+        rebuildTallies();
     }
 
-    public void addOption(String option) {
+    public synchronized void addOption(String option) {
         if (option == null || option.trim().isEmpty()) {
             throw new IllegalArgumentException("Option cannot be null or empty");
         }
@@ -100,36 +124,95 @@ public class Poll {
             throw new IllegalArgumentException("Option already exists: " + trimmedOption);
         }
 
-        this.options.add(trimmedOption);
+        List<String> updated = new ArrayList<>(options);
+        updated.add(trimmedOption);
+        this.options = Collections.unmodifiableList(updated);
+        this.tallies = Arrays.copyOf(tallies, updated.size());
     }
 
-    public boolean removeOption(String option) {
+    public synchronized boolean removeOption(String option) {
         if (option == null) {
             return false;
         }
 
-        boolean removed = options.remove(option.trim());
+        int index = options.indexOf(option.trim());
+        if (index < 0) {
+            return false;
+        }
 
-        // Remove votes for the removed option
-        if (removed) {
-            votes.values().removeIf(vote -> vote.equals(option.trim()));
+        List<String> updated = new ArrayList<>(options);
+        updated.remove(index);
+        this.options = Collections.unmodifiableList(updated);
+
+        // Remove votes for the removed option and close the gap in the ordinals and counters
+        int[] mapping = new int[updated.size() + 1];
+        for (int i = 0; i < mapping.length; i++) {
+            mapping[i] = i < index ? i : (i == index ? -1 : i - 1);
         }
+        votes.remap(mapping);
+        int[] shifted = new int[updated.size()];
+        System.arraycopy(tallies, 0, shifted, 0, index);
+        System.arraycopy(tallies, index + 1, shifted, index, shifted.length - index);
+        this.tallies = shifted;
 
-        return removed;
+        return true;
+    }
+
+    /**
+     * Copies all votes into a map. This allocates per vote; use {@link #getPlayerVote(UUID)}
+     * or {@link #hasVoted(UUID)} for single lookups.
+     */
+    public synchronized Map<UUID, String> getVotes() {
+        Map<UUID, String> copy = new HashMap<>(votes.size() * 2);
+        List<String> currentOptions = options;
+        votes.forEach((msb, lsb, ordinal) -> copy.put(new UUID(msb, lsb), currentOptions.get(ordinal)));
+        return copy;
     }
 
-    public Map<UUID, String> getVotes() {
-        return new HashMap<>(votes);
+    public synchronized void setVotes(Map<UUID, String> votes) {
+        this.votes.clear();
+        if (votes != null) {
+            for (Map.Entry<UUID, String> entry : votes.entrySet()) {
+                int index = entry.getValue() != null ? options.indexOf(entry.getValue()) : -1;
+                if (entry.getKey() != null && index >= 0) { // Votes for unknown options are dropped
+                    this.votes.put(entry.getKey(), index);
+                }
+            }
+        }
+        rebuildTallies();
     }
 
-    public void setVotes(Map<UUID, String> votes) {
-        if (votes == null) {
-            this.votes = new HashMap<>();
-        } else {
-            this.votes = new HashMap<>(votes);
+    /**
+     * Adds a single vote by option ordinal while loading from storage. Counters are not
+     * updated; call {@link #finishLoadingVotes()} once all votes are added.
+     */
+    synchronized void loadVote(long playerMostSigBits, long playerLeastSigBits, int optionIndex) {
+        if (optionIndex >= 0 && optionIndex < options.size()) {
+            votes.put(playerMostSigBits, playerLeastSigBits, optionIndex);
         }
     }
 
+    synchronized void finishLoadingVotes() {
+        rebuildTallies();
+    }
+
+    /**
+     * Visits every vote as raw UUID bits and option ordinal, without copying
+     */
+    synchronized void forEachVote(VoteTable.VoteVisitor visitor) {
+        votes.forEach(visitor);
+    }
+
+    /**
+     * Recounts the per-option counters from the votes. Only needed when votes or options
+     * are replaced wholesale, e.g. after loading from storage.
+     */
+    private void rebuildTallies() {
+        int[] counts = new int[options.size()];
+        votes.forEach((msb, lsb, ordinal) -> counts[ordinal]++);
+        this.tallies = counts;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -139,22 +222,23 @@ public class Poll {
     }
 
     public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAtMillis = expiresAt != null ? toDate(expiresAt).getTime() : Long.MAX_VALUE;
         this.expiresAt = expiresAt;
     }
 
-    public boolean isActive() {
-        // Check both manual active flag and expiration time
-        if (!active) {
-            return false;
-        }
-
-        if (expiresAt != null && LocalDateTime.now().isAfter(expiresAt)) {
-            // Automatically mark as inactive if expired
-            this.active = false;
-            return false;
-        }
+    /**
+     * Epoch millis at which the poll expires, or {@link Long#MAX_VALUE} if it never does
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
 
-        return true;
+    /**
+     * Whether the poll is open. This is a flag read; expiry clears the flag when the
+     * poll's deadline fires, so the clock is not consulted here.
+     */
+    public boolean isActive() {
+        return active;
     }
 
     public void setActive(boolean active) {
@@ -162,100 +246,113 @@ public class Poll {
     }
 
     public boolean isExpired() {
-        return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
+        return System.currentTimeMillis() >= expiresAtMillis;
     }
 
-    public boolean hasVoted(UUID playerUUID) {
-        return playerUUID != null && votes.containsKey(playerUUID);
+    public synchronized boolean hasVoted(UUID playerUUID) {
+        return playerUUID != null && votes.get(playerUUID) >= 0;
     }
 
-    public boolean vote(UUID playerUUID, String option) {
+    public synchronized boolean vote(UUID playerUUID, String option) {
         if (playerUUID == null || option == null) {
             return false;
         }
 
-        if (!isActive()) {
+        // Also check the deadline, which may have passed before the expiry task has run
+        if (!isActive() || isExpired()) {
             return false;
         }
 
         String trimmedOption = option.trim();
-        if (!options.contains(trimmedOption)) {
+        int index = options.indexOf(trimmedOption);
+        if (index < 0) {
             return false;
         }
 
-        votes.put(playerUUID, trimmedOption);
+        int previous = votes.put(playerUUID, index);
+        if (previous >= 0) {
+            tallies[previous]--;
+        }
+        tallies[index]++;
         return true;
     }
 
-    public boolean removeVote(UUID playerUUID) {
-        if (playerUUID == null || !isActive()) {
+    /**
+     * Removes a player's vote whether or not the poll is still active, so a vote that
+     * could not be queued can be rolled back even if the poll closed in the meantime.
+     */
+    public synchronized boolean removeVote(UUID playerUUID) {
+        if (playerUUID == null) {
             return false;
         }
 
-        return votes.remove(playerUUID) != null;
-    }
+        int removed = votes.remove(playerUUID);
+        if (removed < 0) {
+            return false;
+        }
 
-    public String getPlayerVote(UUID playerUUID) {
-        return playerUUID != null ? votes.get(playerUUID) : null;
+        tallies[removed]--;
+        return true;
     }
 
-    public Map<String, Integer> getResults() {
-        Map<String, Integer> results = new LinkedHashMap<>(); // Preserve order
-
-        // Initialize all options with 0 votes
-        for (String option : options) {
-            results.put(option, 0);
+    public synchronized String getPlayerVote(UUID playerUUID) {
+        if (playerUUID == null) {
+            return null;
         }
 
-        // Count votes
-        for (String vote : votes.values()) {
-            if (options.contains(vote)) { // Ensure vote is still valid
-                results.put(vote, results.getOrDefault(vote, 0) + 1);
-            }
-        }
+        int ordinal = votes.get(playerUUID);
+        return ordinal >= 0 ? options.get(ordinal) : null;
+    }
 
+    public synchronized Map<String, Integer> getResults() {
+        Map<String, Integer> results = new LinkedHashMap<>(); // Preserve order
+        List<String> currentOptions = options;
+        for (int i = 0; i < currentOptions.size(); i++) {
+            results.put(currentOptions.get(i), tallies[i]);
+        }
         return results;
     }
 
-    public String getWinningOption() {
-        Map<String, Integer> results = getResults();
-        return results.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
+    public synchronized String getWinningOption() {
+        int best = -1;
+        for (int i = 0; i < tallies.length; i++) {
+            if (best < 0 || tallies[i] > tallies[best]) {
+                best = i;
+            }
+        }
+        return best >= 0 ? options.get(best) : null;
     }
 
-    public List<String> getTiedWinners() {
-        Map<String, Integer> results = getResults();
-        if (results.isEmpty()) {
-            return new ArrayList<>();
+    public synchronized List<String> getTiedWinners() {
+        List<String> winners = new ArrayList<>();
+        int maxVotes = 0;
+        for (int count : tallies) {
+            maxVotes = Math.max(maxVotes, count);
         }
 
-        int maxVotes = results.values().stream().mapToInt(Integer::intValue).max().orElse(0);
-
-        List<String> winners = new ArrayList<>();
-        for (Map.Entry<String, Integer> entry : results.entrySet()) {
-            if (entry.getValue() == maxVotes) {
-                winners.add(entry.getKey());
+        for (int i = 0; i < tallies.length; i++) {
+            if (tallies[i] == maxVotes) {
+                winners.add(options.get(i));
             }
         }
 
         return winners;
     }
 
-    public int getTotalVotes() {
+    public synchronized int getTotalVotes() {
         return votes.size();
     }
 
-    public int getVotesForOption(String option) {
+    public synchronized int getVotesForOption(String option) {
         if (option == null) {
             return 0;
         }
 
-        return getResults().getOrDefault(option.trim(), 0);
+        int index = options.indexOf(option.trim());
+        return index >= 0 ? tallies[index] : 0;
     }
 
-    public double getVotePercentage(String option) {
+    public synchronized double getVotePercentage(String option) {
         if (option == null || getTotalVotes() == 0) {
             return 0.0;
         }
@@ -297,11 +394,7 @@ public class Poll {
     }
 
     public String getFormattedCreationDate() {
-        try {
-            return createdAt.format(DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' HH:mm"));
-        } catch (Exception e) {
-            return "Unknown date";
-        }
+        return formatDate(createdAt);
     }
 
     public String getFormattedExpirationDate() {
@@ -309,14 +402,22 @@ public class Poll {
             return "Never expires";
         }
 
+        return formatDate(expiresAt);
+    }
+
+    public String getTimeRemaining() {
+        return formatTimeRemaining(expiresAt);
+    }
+
+    static String formatDate(LocalDateTime dateTime) {
         try {
-            return expiresAt.format(DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' HH:mm"));
+            return dateTime.format(DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' HH:mm"));
         } catch (Exception e) {
             return "Unknown date";
         }
     }
 
-    public String getTimeRemaining() {
+    static String formatTimeRemaining(LocalDateTime expiresAt) {
         if (expiresAt == null) {
             return "Never expires";
         }
@@ -351,99 +452,51 @@ public class Poll {
     }
 
     public long getTimeRemainingMillis() {
-        if (expiresAt == null) {
+        if (expiresAtMillis == Long.MAX_VALUE) {
             return Long.MAX_VALUE; // Never expires
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        if (now.isAfter(expiresAt)) {
-            return 0; // Expired
-        }
-
-        try {
-            return ChronoUnit.MILLIS.between(now, expiresAt);
-        } catch (Exception e) {
-            return 0;
-        }
+        return Math.max(0, expiresAtMillis - System.currentTimeMillis());
     }
 
-    // MongoDB serialization methods
-    public Document toDocument() {
-        try {
-            Document doc = new Document();
-            doc.append("_id", pollUUID.toString());
-            doc.append("creatorUUID", creatorUUID.toString());
-            doc.append("question", question);
-            doc.append("options", new ArrayList<>(options));
-            doc.append("createdAt", createdAt.toString());
-            doc.append("expiresAt", expiresAt != null ? expiresAt.toString() : null);
-            doc.append("active", active);
-
-            // Convert votes map to a list of documents for MongoDB
-            List<Document> votesList = new ArrayList<>();
-            for (Map.Entry<UUID, String> entry : votes.entrySet()) {
-                Document voteDoc = new Document();
-                voteDoc.append("playerUUID", entry.getKey().toString());
-                voteDoc.append("option", entry.getValue());
-                votesList.add(voteDoc);
-            }
-            doc.append("votes", votesList);
+    // BSON value helpers for documents read without PollCodec
 
-            return doc;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize poll to document", e);
+    /**
+     * Reads a UUID stored as binary subtype 4 (v2), or as a string (v1)
+     */
+    static UUID readUuid(Object value) {
+        if (value instanceof UUID) {
+            return (UUID) value;
+        }
+        if (value instanceof Binary) {
+            Binary binary = (Binary) value;
+            if (binary.getType() != BsonBinarySubType.UUID_STANDARD.getValue() || binary.getData().length != 16) {
+                throw new IllegalArgumentException("Unsupported binary UUID subtype " + binary.getType());
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(binary.getData());
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+        if (value instanceof String) {
+            return UUID.fromString((String) value);
         }
+        throw new IllegalArgumentException("Not a UUID: " + value);
     }
 
-    public static Poll fromDocument(Document doc) {
-        if (doc == null) {
-            return null;
+    /**
+     * Reads a date stored as a BSON date (v2), or as an ISO-8601 string (v1)
+     */
+    static LocalDateTime readDateTime(Object value) {
+        if (value instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
         }
-
-        try {
-            UUID pollUUID = UUID.fromString(doc.getString("_id"));
-            UUID creatorUUID = UUID.fromString(doc.getString("creatorUUID"));
-            String question = doc.getString("question");
-            String createdAtStr = doc.getString("createdAt");
-            LocalDateTime createdAt = createdAtStr != null ? LocalDateTime.parse(createdAtStr) : LocalDateTime.now();
-
-            String expiresAtStr = doc.getString("expiresAt");
-            LocalDateTime expiresAt = expiresAtStr != null ? LocalDateTime.parse(expiresAtStr) : null;
-
-            boolean active = doc.getBoolean("active", true);
-
-            Poll poll = new Poll(pollUUID, creatorUUID, question, createdAt, expiresAt, active);
-
-            // Set options
-            @SuppressWarnings("unchecked")
-            List<String> options = (List<String>) doc.get("options");
-            if (options != null) {
-                poll.setOptions(options);
-            }
-
-            // Set votes
-            @SuppressWarnings("unchecked")
-            List<Document> votesList = (List<Document>) doc.get("votes");
-            if (votesList != null) {
-                Map<UUID, String> votes = new HashMap<>();
-                for (Document voteDoc : votesList) {
-                    try {
-                        UUID playerUUID = UUID.fromString(voteDoc.getString("playerUUID"));
-                        String option = voteDoc.getString("option");
-                        if (playerUUID != null && option != null) {
-                            votes.put(playerUUID, option);
-                        }
-                    } catch (Exception e) {
-                        // Skip invalid vote entries
-                    }
-                }
-                poll.setVotes(votes);
-            }
-
-            return poll;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to deserialize poll from document", e);
+        if (value instanceof String) {
+            return LocalDateTime.parse((String) value);
         }
+        return null;
+    }
+
+    static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
     }
 
     // Utility methods
@@ -475,7 +528,7 @@ public class Poll {
     /**
      * Validates the poll data
      */
-    public boolean isValid() {
+    public synchronized boolean isValid() {
         if (question == null || question.trim().isEmpty()) {
             return false;
         }
@@ -494,12 +547,7 @@ public class Poll {
             return false;
         }
 
-        for (String vote : votes.values()) {
-            if (!options.contains(vote)) {
-                return false;
-            }
-        }
-
+        // Votes are stored by option ordinal, so they always refer to an existing option
         return true;
     }
 }
\ No newline at end of file
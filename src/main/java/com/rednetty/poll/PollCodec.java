@@ -0,0 +1,385 @@
+package com.rednetty.poll;
+
+import org.bson.BsonBinary;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Encodes polls straight to and from BSON, without building an intermediate
+ * {@link org.bson.Document}. Writes the v2 schema and reads both v1 and v2. In v2, UUIDs
+ * are BSON binary subtype 4, dates are BSON dates, and votes are two parallel arrays of
+ * voter UUIDs and option ordinals; the _id stays the UUID string so v1 documents are
+ * migrated in place. Votes are streamed into primitive buffers and loaded into the
+ * poll once the whole document has been read, since fields may come in any order.
+ *
+ * Decoding never throws for malformed content: invalid vote entries are skipped, and a
+ * document missing a required field decodes to {@link #MALFORMED} so callers can skip it.
+ */
+public class PollCodec implements Codec<Poll> {
+    /**
+     * Decoded in place of a document missing a required field. Not null, because Reactive
+     * Streams forbid null items and a null would fail a whole reactive scan; readers pass
+     * results through {@link #valid(Poll)} instead.
+     */
+    static final Poll MALFORMED = new Poll(new UUID(0, 0), new UUID(0, 0), "",
+            LocalDateTime.of(1970, 1, 1, 0, 0), null, false);
+
+    /**
+     * @return the poll, or null if it was decoded from a malformed document
+     */
+    static Poll valid(Poll poll) {
+        return poll == MALFORMED ? null : poll;
+    }
+
+    @Override
+    public Class<Poll> getEncoderClass() {
+        return Poll.class;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Poll poll, EncoderContext encoderContext) {
+        // Hold the poll's monitor so options, votes and counters are written as one snapshot
+        synchronized (poll) {
+            List<String> options = poll.getOptions();
+            LocalDateTime expiresAt = poll.getExpiresAt();
+
+            writer.writeStartDocument();
+            writer.writeString("_id", poll.getPollUUID().toString());
+            writer.writeInt32("schemaVersion", Poll.SCHEMA_VERSION);
+            writer.writeBinaryData("creatorUUID", new BsonBinary(poll.getCreatorUUID()));
+            writer.writeString("question", poll.getQuestion());
+
+            writer.writeStartArray("options");
+            for (String option : options) {
+                writer.writeString(option);
+            }
+            writer.writeEndArray();
+
+            writer.writeDateTime("createdAt", toEpochMillis(poll.getCreatedAt()));
+            if (expiresAt != null) {
+                writer.writeDateTime("expiresAt", toEpochMillis(expiresAt));
+            } else {
+                writer.writeNull("expiresAt");
+            }
+            writer.writeBoolean("active", poll.isActive());
+
+            // Voters and their choices are written in the same table order, counting tallies on the way
+            int[] tallies = new int[options.size()];
+            writer.writeStartArray("voters");
+            poll.forEachVote((msb, lsb, ordinal) -> {
+                writer.writeBinaryData(new BsonBinary(new UUID(msb, lsb)));
+                tallies[ordinal]++;
+            });
+            writer.writeEndArray();
+
+            writer.writeStartArray("choices");
+            poll.forEachVote((msb, lsb, ordinal) -> writer.writeInt32(ordinal));
+            writer.writeEndArray();
+
+            writer.writeStartArray("tallies");
+            for (int count : tallies) {
+                writer.writeInt32(count);
+            }
+            writer.writeEndArray();
+
+            writer.writeEndDocument();
+        }
+    }
+
+    @Override
+    public Poll decode(BsonReader reader, DecoderContext decoderContext) {
+        UUID pollUUID = null;
+        UUID creatorUUID = null;
+        String question = null;
+        List<String> options = new ArrayList<>();
+        LocalDateTime createdAt = null;
+        LocalDateTime expiresAt = null;
+        boolean active = true;
+        VoteBuffer votes = new VoteBuffer();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            switch (name) {
+                case "_id":
+                    pollUUID = readUuid(reader);
+                    break;
+                case "creatorUUID":
+                    creatorUUID = readUuid(reader);
+                    break;
+                case "question":
+                    question = readString(reader);
+                    break;
+                case "options":
+                    readOptions(reader, options);
+                    break;
+                case "createdAt":
+                    createdAt = readDateTime(reader);
+                    break;
+                case "expiresAt":
+                    expiresAt = readDateTime(reader);
+                    break;
+                case "active":
+                    if (reader.getCurrentBsonType() == BsonType.BOOLEAN) {
+                        active = reader.readBoolean();
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "voters":
+                    readVoters(reader, votes);
+                    break;
+                case "choices":
+                    readChoices(reader, votes);
+                    break;
+                case "votes":
+                    readLegacyVotes(reader, votes);
+                    break;
+                default:
+                    // schemaVersion and tallies are implied by the fields above
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.readEndDocument();
+
+        if (pollUUID == null || creatorUUID == null || question == null) {
+            return MALFORMED;
+        }
+
+        Poll poll = new Poll(pollUUID, creatorUUID, question, createdAt, expiresAt, active);
+        poll.setOptions(options);
+        votes.loadInto(poll, poll.getOptions());
+        poll.finishLoadingVotes();
+        return poll;
+    }
+
+    private static void readOptions(BsonReader reader, List<String> options) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String option = readString(reader);
+            if (option != null) {
+                options.add(option);
+            }
+        }
+        reader.readEndArray();
+    }
+
+    private static void readVoters(BsonReader reader, VoteBuffer votes) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        int index = 0;
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            UUID voter = readUuid(reader);
+            if (voter != null) {
+                votes.setVoter(index, voter);
+            }
+            index++;
+        }
+        reader.readEndArray();
+    }
+
+    private static void readChoices(BsonReader reader, VoteBuffer votes) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        int index = 0;
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            votes.setChoice(index++, readInt(reader));
+        }
+        reader.readEndArray();
+    }
+
+    /**
+     * Reads the v1 vote list of {playerUUID, option} subdocuments
+     */
+    private static void readLegacyVotes(BsonReader reader, VoteBuffer votes) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        int index = 0;
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+                reader.skipValue();
+                continue;
+            }
+
+            UUID voter = null;
+            String option = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                String name = reader.readName();
+                if ("playerUUID".equals(name)) {
+                    voter = readUuid(reader);
+                } else if ("option".equals(name)) {
+                    option = readString(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+
+            if (voter != null && option != null) {
+                votes.setVoter(index, voter);
+                votes.setLegacyOption(index, option);
+                index++;
+            }
+        }
+        reader.readEndArray();
+    }
+
+    private static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static int readInt(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            default:
+                reader.skipValue();
+                return -1;
+        }
+    }
+
+    /**
+     * Reads a UUID stored as binary (v2) or as a string (v1), or null if it is neither
+     */
+    private static UUID readUuid(BsonReader reader) {
+        try {
+            switch (reader.getCurrentBsonType()) {
+                case BINARY:
+                    return reader.readBinaryData().asUuid();
+                case STRING:
+                    return UUID.fromString(reader.readString());
+                default:
+                    reader.skipValue();
+                    return null;
+            }
+        } catch (RuntimeException e) {
+            // The value has been consumed; treat it as missing
+            return null;
+        }
+    }
+
+    /**
+     * Reads a date stored as a BSON date (v2) or an ISO-8601 string (v1), or null
+     */
+    private static LocalDateTime readDateTime(BsonReader reader) {
+        try {
+            switch (reader.getCurrentBsonType()) {
+                case DATE_TIME:
+                    return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZoneId.systemDefault());
+                case STRING:
+                    return LocalDateTime.parse(reader.readString());
+                default:
+                    reader.skipValue();
+                    return null;
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Growable primitive buffers pairing voters with their choices by array position
+     */
+    private static final class VoteBuffer {
+        private long[] mostSigBits = new long[0];
+        private long[] leastSigBits = new long[0];
+        private boolean[] present = new boolean[0];
+        private int[] choices = new int[0];
+        private String[] legacyOptions;
+        private int voterCount;
+        private int choiceCount;
+
+        void setVoter(int index, UUID voter) {
+            ensureVoterCapacity(index + 1);
+            mostSigBits[index] = voter.getMostSignificantBits();
+            leastSigBits[index] = voter.getLeastSignificantBits();
+            present[index] = true;
+            voterCount = Math.max(voterCount, index + 1);
+        }
+
+        void setChoice(int index, int ordinal) {
+            if (index >= choices.length) {
+                choices = Arrays.copyOf(choices, grow(choices.length, index + 1));
+            }
+            choices[index] = ordinal;
+            choiceCount = Math.max(choiceCount, index + 1);
+        }
+
+        void setLegacyOption(int index, String option) {
+            if (legacyOptions == null) {
+                legacyOptions = new String[mostSigBits.length];
+            } else if (index >= legacyOptions.length) {
+                legacyOptions = Arrays.copyOf(legacyOptions, mostSigBits.length);
+            }
+            legacyOptions[index] = option;
+        }
+
+        void loadInto(Poll poll, List<String> options) {
+            int count = legacyOptions != null ? voterCount : Math.min(voterCount, choiceCount);
+            for (int i = 0; i < count; i++) {
+                if (!present[i]) {
+                    continue;
+                }
+
+                int ordinal = legacyOptions != null ? options.indexOf(legacyOptions[i]) : choices[i];
+                poll.loadVote(mostSigBits[i], leastSigBits[i], ordinal);
+            }
+        }
+
+        private void ensureVoterCapacity(int required) {
+            if (required > mostSigBits.length) {
+                int capacity = grow(mostSigBits.length, required);
+                mostSigBits = Arrays.copyOf(mostSigBits, capacity);
+                leastSigBits = Arrays.copyOf(leastSigBits, capacity);
+                present = Arrays.copyOf(present, capacity);
+            }
+        }
+
+        private static int grow(int current, int required) {
+            return Math.max(required, Math.max(16, current * 2));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.rednetty.poll;
+
+import com.rednetty.PollPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Closes polls at their deadlines. Deadlines are kept in a priority queue ordered by
+ * expiry time, and a single async task is armed for the earliest one, so no work is
+ * done between deadlines. When the task fires, every poll that is due is handed to
+ * the expiry callback, and the task is re-armed for the next deadline.
+ */
+public class PollExpiryScheduler {
+    private static final long MILLIS_PER_TICK = 50;
+
+    private final PriorityQueue<Deadline> deadlines =
+            new PriorityQueue<>(Comparator.comparingLong((Deadline deadline) -> deadline.expiresAtMillis));
+    private final Consumer<Poll> onExpire;
+    private BukkitTask timer;
+    private long timerAtMillis = Long.MAX_VALUE;
+    private boolean running = true;
+
+    /**
+     * @param onExpire called from an async task for each poll whose deadline has passed
+     */
+    public PollExpiryScheduler(Consumer<Poll> onExpire) {
+        this.onExpire = onExpire;
+    }
+
+    /**
+     * Schedules the poll to be closed at its current expiry time. Polls without an expiry
+     * time are ignored. If the expiry time changes later, the poll is rescheduled when
+     * the old deadline fires.
+     */
+    public synchronized void schedule(Poll poll) {
+        long expiresAtMillis = poll.getExpiresAtMillis();
+        if (!running || expiresAtMillis == Long.MAX_VALUE) {
+            return;
+        }
+
+        deadlines.add(new Deadline(poll, expiresAtMillis));
+        if (expiresAtMillis < timerAtMillis) {
+            arm(expiresAtMillis);
+        }
+    }
+
+    /**
+     * Drops any pending deadline for the poll, e.g. when it is closed early
+     */
+    public synchronized void cancel(Poll poll) {
+        deadlines.removeIf(deadline -> deadline.poll == poll);
+    }
+
+    public synchronized int getPendingCount() {
+        return deadlines.size();
+    }
+
+    public synchronized void shutdown() {
+        running = false;
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        timerAtMillis = Long.MAX_VALUE;
+        deadlines.clear();
+    }
+
+    private void arm(long atMillis) {
+        if (timer != null) {
+            timer.cancel();
+        }
+
+        // Round up so the task never runs before the deadline
+        long delayMillis = Math.max(0, atMillis - System.currentTimeMillis());
+        long delayTicks = Math.max(1, (delayMillis + MILLIS_PER_TICK - 1) / MILLIS_PER_TICK);
+
+        timerAtMillis = atMillis;
+        timer = new BukkitRunnable() {
+            @Override
+            public void run() {
+                fire();
+            }
+        }.runTaskLaterAsynchronously(PollPlugin.getInstance(), delayTicks);
+    }
+
+    private void fire() {
+        List<Poll> due = new ArrayList<>();
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+
+            timer = null;
+            timerAtMillis = Long.MAX_VALUE;
+
+            long now = System.currentTimeMillis();
+            while (!deadlines.isEmpty() && deadlines.peek().expiresAtMillis <= now) {
+                Poll poll = deadlines.poll().poll;
+                long expiresAtMillis = poll.getExpiresAtMillis();
+                if (expiresAtMillis <= now) {
+                    due.add(poll);
+                } else if (expiresAtMillis != Long.MAX_VALUE) {
+                    // The expiry time was moved back since the poll was scheduled
+                    deadlines.add(new Deadline(poll, expiresAtMillis));
+                }
+            }
+
+            if (!deadlines.isEmpty()) {
+                arm(deadlines.peek().expiresAtMillis);
+            }
+        }
+
+        // Closing persists the poll, so run the callbacks outside the lock
+        for (Poll poll : due) {
+            try {
+                onExpire.accept(poll);
+            } catch (Exception e) {
+                PollPlugin.getInstance().getLogger().warning("Failed to close expired poll " + poll.getPollUUID() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class Deadline {
+        private final Poll poll;
+        private final long expiresAtMillis;
+
+        private Deadline(Poll poll, long expiresAtMillis) {
+            this.poll = poll;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
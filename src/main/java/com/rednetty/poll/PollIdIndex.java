@@ -0,0 +1,94 @@
+package com.rednetty.poll;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted index of every known poll ID, for resolving short IDs such as the first 8
+ * characters of the UUID. Lookups walk only the keys sharing the prefix, so resolving a
+ * short ID costs O(log n) instead of a scan of all polls. Safe for concurrent use.
+ */
+public class PollIdIndex {
+    private final NavigableMap<String, UUID> ids = new ConcurrentSkipListMap<>();
+
+    public void add(UUID pollUUID) {
+        if (pollUUID != null) {
+            ids.put(pollUUID.toString(), pollUUID);
+        }
+    }
+
+    public void remove(UUID pollUUID) {
+        if (pollUUID != null) {
+            ids.remove(pollUUID.toString());
+        }
+    }
+
+    /**
+     * Adds a batch of IDs, such as all polls loaded at startup
+     */
+    public void load(Collection<UUID> pollUUIDs) {
+        for (UUID pollUUID : pollUUIDs) {
+            add(pollUUID);
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Finds poll IDs starting with the given prefix, in ID order
+     *
+     * @param limit maximum number of matches to return
+     */
+    public List<UUID> findByPrefix(String prefix, int limit) {
+        List<UUID> matches = new ArrayList<>();
+        if (prefix == null || limit <= 0) {
+            return matches;
+        }
+
+        String key = prefix.trim().toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, UUID> entry : ids.tailMap(key, true).entrySet()) {
+            if (!entry.getKey().startsWith(key) || matches.size() >= limit) {
+                break;
+            }
+            matches.add(entry.getValue());
+        }
+        return matches;
+    }
+
+    /**
+     * Suggests IDs for the given typed prefix: short IDs while the input is no longer
+     * than one, full IDs after that. Reads only memory, so it is safe off the main thread.
+     *
+     * @param limit maximum number of suggestions to return
+     */
+    public List<String> complete(String prefix, int shortIdLength, int limit) {
+        List<String> completions = new ArrayList<>();
+        if (limit <= 0) {
+            return completions;
+        }
+
+        String key = prefix != null ? prefix.trim().toLowerCase(Locale.ROOT) : "";
+        String previous = null;
+        for (String id : ids.tailMap(key, true).keySet()) {
+            if (!id.startsWith(key) || completions.size() >= limit) {
+                break;
+            }
+
+            String suggestion = key.length() < shortIdLength ? id.substring(0, shortIdLength) : id;
+            // Polls sharing a short ID collapse into one suggestion
+            if (!suggestion.equals(previous)) {
+                completions.add(suggestion);
+                previous = suggestion;
+            }
+        }
+        return completions;
+    }
+}
@@ -1,30 +1,61 @@
 package com.rednetty.poll;
 
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 import com.rednetty.PollPlugin;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class PollManager {
     private final PollStorage storage;
-    private final Map<UUID, Poll> activePolls = new HashMap<>();
+    // Registry of open polls; removing a poll from it is the one-time active -> closed transition
+    private final Map<UUID, Poll> activePolls = new ConcurrentHashMap<>();
     private static final Pattern DURATION_PATTERN = Pattern.compile("(\\d+)([dhm])");
-    private BukkitRunnable cleanupTask;
+    // Closes each active poll at its deadline
+    private final PollExpiryScheduler expiryScheduler = new PollExpiryScheduler(this::expirePoll);
+    private final VoteWriteQueue voteQueue;
+    // Keeps queued votes on disk until storage has them; null if disabled or unavailable
+    private final VoteJournal voteJournal;
+    // Votes read back from the journal at startup, replayed into storage by loadActivePolls
+    private List<VoteRecord> journalBacklog = Collections.emptyList();
+    // Closed polls recently looked at, so reopening their results skips storage
+    private final ClosedPollCache closedPolls;
+    // Shares one storage read between concurrent requests for the same poll or page
+    private final SingleFlight loads = new SingleFlight();
+    // Every known poll ID, for resolving short IDs without loading polls
+    private final PollIdIndex pollIds = new PollIdIndex();
+    // Bumped whenever a vote, poll or poll state changes, so open menus can skip refreshes
+    private final AtomicLong dataVersion = new AtomicLong();
+    private static final int SHORT_ID_LENGTH = 8;
 
     // Rate limiting for poll creation
-    private final Map<UUID, Long> lastPollCreation = new HashMap<>();
+    private final Map<UUID, Long> lastPollCreation = new ConcurrentHashMap<>();
     private final long POLL_CREATION_COOLDOWN = 60000;
 
     public PollManager(PollStorage storage) {
         this.storage = storage;
+
+        FileConfiguration config = PollPlugin.getInstance().getConfig();
+        this.closedPolls = new ClosedPollCache(
+                config.getInt("settings.closed-poll-cache.max-entries", 500),
+                config.getLong("settings.closed-poll-cache.max-weight", 200000));
+        this.voteJournal = openVoteJournal(config);
+        this.voteQueue = new VoteWriteQueue(storage, voteJournal,
+                config.getInt("settings.vote-queue-capacity", 10000),
+                config.getInt("settings.vote-flush-batch-size", 500));
+
         loadActivePolls();
-        startCleanupTask();
+        loadPollIds();
+        voteQueue.start();
     }
 
     /**
@@ -34,64 +65,210 @@ public class PollManager {
         return storage;
     }
 
+    private VoteJournal openVoteJournal(FileConfiguration config) {
+        if (!config.getBoolean("settings.vote-journal.enabled", true)) {
+            return null;
+        }
+
+        PollPlugin plugin = PollPlugin.getInstance();
+        VoteJournal journal = new VoteJournal(plugin.getDataFolder().toPath().resolve("journal"),
+                config.getInt("settings.vote-journal.segment-size-kb", 1024) * 1024, plugin.getLogger());
+        try {
+            journalBacklog = journal.open(storage.getStorageId());
+            return journal;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open vote journal, votes are not protected against crashes: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes votes left in the journal by a crash to storage. Storage skips votes it
+     * already has, so votes that were stored before the crash are not counted twice.
+     * Journal segments are only discarded once every poll they hold votes for is known
+     * to have them, or is confirmed deleted.
+     */
+    private void replayJournal() {
+        if (journalBacklog.isEmpty()) {
+            return;
+        }
+
+        List<VoteRecord> votes = journalBacklog;
+        journalBacklog = Collections.emptyList();
+        Map<UUID, AppendOutcome> outcomes = storage.appendVotes(votes);
+        if (outcomes == null) {
+            PollPlugin.getInstance().getLogger().warning("Failed to replay " + votes.size() + " journaled votes, keeping them for the next start");
+            return;
+        }
+
+        Set<UUID> stored = new HashSet<>();
+        Set<UUID> missing = new HashSet<>();
+        Map<UUID, List<VoteRecord>> fullWrites = new LinkedHashMap<>();
+        for (VoteRecord vote : votes) {
+            AppendOutcome outcome = outcomes.get(vote.getPollUUID());
+            if (outcome == AppendOutcome.STORED) {
+                stored.add(vote.getPollUUID());
+            } else if (outcome == AppendOutcome.NOT_FOUND) {
+                missing.add(vote.getPollUUID());
+            } else if (outcome == AppendOutcome.NEEDS_FULL_WRITE) {
+                // v1 documents take no appends, so their polls are written in full
+                fullWrites.computeIfAbsent(vote.getPollUUID(), id -> new ArrayList<>()).add(vote);
+            }
+            // FAILED polls are in neither set, so the segments holding their votes are kept
+        }
+
+        for (Map.Entry<UUID, List<VoteRecord>> entry : fullWrites.entrySet()) {
+            Poll poll = storage.getPoll(entry.getKey());
+            if (poll == null) {
+                continue; // Unreadable, or deleted since; either way the votes are kept
+            }
+
+            boolean changed = false;
+            for (VoteRecord vote : entry.getValue()) {
+                if (!poll.hasVoted(vote.getPlayerUUID()) && poll.getOptions().indexOf(vote.getOption()) == vote.getOptionIndex()) {
+                    poll.loadVote(vote.getPlayerUUID().getMostSignificantBits(), vote.getPlayerUUID().getLeastSignificantBits(), vote.getOptionIndex());
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                poll.finishLoadingVotes();
+                if (!storage.updatePoll(poll)) {
+                    PollPlugin.getInstance().getLogger().warning("Failed to replay journaled votes on poll " + poll.getPollUUID() + ", keeping them for the next start");
+                    continue;
+                }
+            }
+            stored.add(poll.getPollUUID());
+        }
+
+        int kept = voteJournal.discardRecovered(stored, missing);
+        PollPlugin.getInstance().getLogger().info("Replayed " + votes.size() + " votes from the vote journal");
+        if (kept > 0) {
+            PollPlugin.getInstance().getLogger().warning("Kept " + kept + " vote journal segments whose votes could not all be stored, they are replayed again on the next start");
+        }
+    }
+
     private void loadActivePolls() {
         try {
-            List<Poll> polls = storage.getAllActivePolls();
-            activePolls.clear();
-            for (Poll poll : polls) {
-                if (poll.isActive()) {
-                    activePolls.put(poll.getPollUUID(), poll);
+            // Votes that never reached storage before a crash go in before anything is read
+            replayJournal();
+
+            // Close everything that expired while the server was down in one bulk update
+            closeExpiredPolls();
+
+            // Streamed so only polls that stay registered are kept, not a list of all of them
+            Set<UUID> loaded = new HashSet<>();
+            List<Poll> expired = new ArrayList<>();
+            boolean complete = storage.forEachActivePoll(0, poll -> {
+                if (poll.isActive() && !poll.isExpired()) {
+                    // Keep existing instances so votes queued against them are not lost
+                    if (activePolls.putIfAbsent(poll.getPollUUID(), poll) == null) {
+                        expiryScheduler.schedule(poll);
+                    }
+                    loaded.add(poll.getPollUUID());
                 } else {
-                    // Auto-close expired polls during loading
-                    poll.setActive(false);
-                    storage.updatePoll(poll);
+                    expired.add(poll);
+                }
+            });
+
+            // Auto-close expired polls during loading, once the scan has released its cursor
+            for (Poll poll : expired) {
+                poll.setActive(false);
+                storage.updatePoll(poll);
+            }
+
+            if (!complete) {
+                // Polls the failed scan did not reach are still open, so leave the registry as it is
+                PollPlugin.getInstance().getLogger().warning("Active poll scan did not complete, kept " + activePolls.size() + " registered polls");
+                return;
+            }
+
+            Iterator<Poll> iterator = activePolls.values().iterator();
+            while (iterator.hasNext()) {
+                Poll poll = iterator.next();
+                if (!loaded.contains(poll.getPollUUID())) {
+                    iterator.remove();
+                    expiryScheduler.cancel(poll);
                 }
             }
             PollPlugin.getInstance().getLogger().info("Loaded " + activePolls.size() + " active polls");
         } catch (Exception e) {
-            PollPlugin.getInstance().getLogger().severe("Failed to load active polls: " + e.getMessage());
-            e.printStackTrace();
+            PollPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to load active polls", e);
         }
     }
 
-    private void startCleanupTask() {
-        cleanupTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                cleanupExpiredPolls();
-            }
-        };
-        cleanupTask.runTaskTimerAsynchronously(PollPlugin.getInstance(), 6000L, 6000L);
+    private void loadPollIds() {
+        try {
+            pollIds.load(storage.getAllPollIds());
+            PollPlugin.getInstance().getLogger().info("Indexed " + pollIds.size() + " poll IDs");
+        } catch (Exception e) {
+            PollPlugin.getInstance().getLogger().warning("Failed to index poll IDs: " + e.getMessage());
+        }
     }
 
-    private void cleanupExpiredPolls() {
-        try {
-            List<UUID> expiredPolls = new ArrayList<>();
+    /**
+     * Called by the expiry scheduler once a poll's deadline has passed
+     */
+    private void expirePoll(Poll poll) {
+        if (deactivate(poll) != null) {
+            PollPlugin.getInstance().getLogger().info("Auto-closed expired poll: " + poll.getQuestion());
+            Bukkit.getScheduler().runTask(PollPlugin.getInstance(), () -> notifyPollClosed(poll));
+        }
+    }
 
-            for (Map.Entry<UUID, Poll> entry : activePolls.entrySet()) {
-                Poll poll = entry.getValue();
-                if (!poll.isActive()) {
-                    expiredPolls.add(entry.getKey());
-                }
-            }
+    /**
+     * Closes all polls past their deadline in storage with one bulk update, then evicts
+     * them from the registry by the same deadline. Used at startup, after downtime, and on
+     * shutdown when the scheduler no longer runs.
+     */
+    private void closeExpiredPolls() {
+        try {
+            storage.cleanupExpiredPolls();
 
-            for (UUID pollId : expiredPolls) {
-                Poll poll = activePolls.remove(pollId);
-                if (poll != null) {
+            int closed = 0;
+            for (Poll poll : activePolls.values()) {
+                // Removing from the registry is the exactly-once close; storage is already updated
+                if (poll.isExpired() && activePolls.remove(poll.getPollUUID(), poll)) {
+                    expiryScheduler.cancel(poll);
                     poll.setActive(false);
-                    storage.updatePoll(poll);
-                    PollPlugin.getInstance().getLogger().info("Auto-closed expired poll: " + poll.getQuestion());
+                    closed++;
                 }
             }
 
-            if (!expiredPolls.isEmpty()) {
-                PollPlugin.getInstance().getLogger().info("Cleaned up " + expiredPolls.size() + " expired polls");
+            if (closed > 0) {
+                dataVersion.incrementAndGet();
+                PollPlugin.getInstance().getLogger().info("Cleaned up " + closed + " expired polls");
             }
         } catch (Exception e) {
             PollPlugin.getInstance().getLogger().warning("Error during poll cleanup: " + e.getMessage());
         }
     }
 
+    /**
+     * Moves a poll out of the active registry and persists it as closed. Safe to call from
+     * any thread; only the first caller for a given poll performs the transition. The
+     * registry is updated at once, the write goes to a storage thread.
+     *
+     * @return the write, completing with whether storage took it, or null if this call did not close the poll
+     */
+    private CompletableFuture<Boolean> deactivate(Poll poll) {
+        if (!activePolls.remove(poll.getPollUUID(), poll)) {
+            return null;
+        }
+
+        expiryScheduler.cancel(poll);
+        poll.setActive(false);
+        closedPolls.put(poll);
+        dataVersion.incrementAndGet();
+        return storage.supplyAsync(() -> storage.updatePoll(poll)).handle((stored, error) -> {
+            if (error != null) {
+                PollPlugin.getInstance().getLogger().warning("Failed to persist closed poll " + poll.getPollUUID() + ": " + error.getMessage());
+                return false;
+            }
+            return stored;
+        });
+    }
+
     public Poll createPoll(UUID creatorUUID, String question, String duration) {
         Long lastCreation = lastPollCreation.get(creatorUUID);
         if (lastCreation != null && System.currentTimeMillis() - lastCreation < POLL_CREATION_COOLDOWN) {
@@ -112,43 +289,84 @@ public class PollManager {
     public boolean savePoll(Poll poll) {
         try {
             if (storage.savePoll(poll)) {
+                pollIds.add(poll.getPollUUID());
                 if (poll.isActive()) {
-                    activePolls.put(poll.getPollUUID(), poll);
+                    Poll previous = activePolls.put(poll.getPollUUID(), poll);
+                    if (previous != poll) {
+                        if (previous != null) {
+                            expiryScheduler.cancel(previous);
+                        }
+                        expiryScheduler.schedule(poll);
+                    }
                 }
+                dataVersion.incrementAndGet();
                 // Update rate limiting
                 lastPollCreation.put(poll.getCreatorUUID(), System.currentTimeMillis());
                 return true;
             }
         } catch (Exception e) {
-            PollPlugin.getInstance().getLogger().severe("Failed to save poll: " + e.getMessage());
-            e.printStackTrace();
+            PollPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to save poll", e);
         }
         return false;
     }
 
     public boolean vote(UUID pollUUID, UUID playerUUID, String option) {
+        return recordVote(pollUUID, playerUUID, option) >= 0;
+    }
+
+    /**
+     * Like {@link #vote(UUID, UUID, String)}, but completes on the main thread only once
+     * the vote is safe on disk, so the player is not told it was recorded before then
+     */
+    public CompletableFuture<Boolean> voteAsync(UUID pollUUID, UUID playerUUID, String option) {
+        long sequence = recordVote(pollUUID, playerUUID, option);
+        if (sequence < 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (sequence == 0 || voteJournal == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        // If the journal fails the vote is still queued for storage, so it is reported as recorded
+        return onMainThread(voteJournal.awaitDurable(sequence)).handle((done, error) -> true);
+    }
+
+    /**
+     * Applies a vote and queues it for storage
+     *
+     * @return the vote's journal sequence number, 0 if it was not journaled, or -1 if the vote was rejected
+     */
+    private long recordVote(UUID pollUUID, UUID playerUUID, String option) {
         try {
             Poll poll = activePolls.get(pollUUID);
             if (poll == null || !poll.isActive() || poll.hasVoted(playerUUID)) {
-                return false;
+                return -1;
             }
 
             if (!poll.getOptions().contains(option)) {
-                return false;
+                return -1;
             }
 
-            poll.vote(playerUUID, option);
-            boolean success = storage.updatePoll(poll);
+            if (!poll.vote(playerUUID, option)) {
+                return -1;
+            }
 
-            if (success) {
-                // Notify other players about the vote
-                notifyVoteUpdate(poll, playerUUID, option);
+            // Persisted in the background; roll back if the write queue is saturated
+            long sequence = voteQueue.submit(poll, playerUUID, option);
+            if (sequence < 0) {
+                poll.removeVote(playerUUID);
+                PollPlugin.getInstance().getLogger().warning("Vote queue is full, rejected vote on poll " + pollUUID);
+                return -1;
             }
 
-            return success;
+            dataVersion.incrementAndGet();
+
+            // Notify other players about the vote
+            notifyVoteUpdate(poll, playerUUID, option);
+            return sequence;
         } catch (Exception e) {
             PollPlugin.getInstance().getLogger().warning("Failed to process vote: " + e.getMessage());
-            return false;
+            return -1;
         }
     }
 
@@ -159,11 +377,7 @@ public class PollManager {
     public boolean closePoll(UUID pollUUID) {
         try {
             Poll poll = activePolls.get(pollUUID);
-            if (poll != null) {
-                poll.setActive(false);
-                storage.updatePoll(poll);
-                activePolls.remove(pollUUID);
-
+            if (poll != null && deactivate(poll) != null) {
                 // Notify about poll closure
                 notifyPollClosed(poll);
                 return true;
@@ -186,8 +400,17 @@ public class PollManager {
 
     public boolean removePoll(UUID pollUUID) {
         try {
-            activePolls.remove(pollUUID);
-            return storage.deletePoll(pollUUID);
+            Poll poll = activePolls.remove(pollUUID);
+            if (poll != null) {
+                expiryScheduler.cancel(poll);
+            }
+            closedPolls.invalidate(pollUUID);
+            if (storage.deletePoll(pollUUID)) {
+                pollIds.remove(pollUUID);
+                dataVersion.incrementAndGet();
+                return true;
+            }
+            return false;
         } catch (Exception e) {
             PollPlugin.getInstance().getLogger().warning("Failed to remove poll: " + e.getMessage());
             return false;
@@ -197,19 +420,14 @@ public class PollManager {
     public List<Poll> getActivePolls() {
         // Filter out expired polls and update cache
         List<Poll> active = new ArrayList<>();
-        Iterator<Map.Entry<UUID, Poll>> iterator = activePolls.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<UUID, Poll> entry = iterator.next();
-            Poll poll = entry.getValue();
 
+        // Iteration over the concurrent registry is safe while other threads modify it
+        for (Poll poll : activePolls.values()) {
             if (poll.isActive()) {
                 active.add(poll);
             } else {
                 // Auto-close expired polls
-                iterator.remove();
-                poll.setActive(false);
-                storage.updatePoll(poll);
+                deactivate(poll);
             }
         }
 
@@ -226,15 +444,18 @@ public class PollManager {
             Poll poll = activePolls.get(pollUUID);
             if (poll != null && !poll.isActive()) {
                 // Remove expired poll from cache
-                activePolls.remove(pollUUID);
-                poll.setActive(false);
-                storage.updatePoll(poll);
+                deactivate(poll);
                 return poll; // Still return it for management purposes
             }
 
+            // Closed polls never change, so a cached copy is as good as storage
+            if (poll == null) {
+                poll = closedPolls.get(pollUUID);
+            }
+
             // If not in cache or not active, get from storage
             if (poll == null) {
-                poll = storage.getPoll(pollUUID);
+                poll = loadPoll(pollUUID);
             }
 
             return poll;
@@ -244,6 +465,16 @@ public class PollManager {
         }
     }
 
+    /**
+     * Reads a poll from storage, caching it if it is closed
+     */
+    private Poll loadPoll(UUID pollUUID) {
+        long stamp = closedPolls.stamp();
+        Poll poll = storage.getPoll(pollUUID);
+        closedPolls.put(poll, stamp);
+        return poll;
+    }
+
     public Poll getPoll(String pollId) {
         if (pollId == null || pollId.trim().isEmpty()) {
             return null;
@@ -253,21 +484,169 @@ public class PollManager {
             UUID uuid = UUID.fromString(pollId);
             return getPoll(uuid);
         } catch (IllegalArgumentException e) {
-            // Try to find by short ID (first 8 characters)
-            if (pollId.length() >= 8) {
-                try {
-                    List<Poll> allPolls = storage.getAllPolls();
-                    for (Poll poll : allPolls) {
-                        if (poll.getPollUUID().toString().startsWith(pollId)) {
-                            return poll;
-                        }
-                    }
-                } catch (Exception ex) {
-                    PollPlugin.getInstance().getLogger().warning("Failed to search polls by short ID: " + ex.getMessage());
-                }
+            // Try to find by short ID (first 8 characters); ambiguous prefixes match nothing
+            List<UUID> matches = findPollIdsByPrefix(pollId.trim());
+            return matches.size() == 1 ? getPoll(matches.get(0)) : null;
+        }
+    }
+
+    /**
+     * Whether a short poll ID matches more than one poll
+     */
+    public boolean isAmbiguousPollId(String pollId) {
+        // Storage matches are added to the index when looked up, so memory is enough here
+        return pollId != null && pollId.trim().length() >= SHORT_ID_LENGTH
+                && pollIds.findByPrefix(pollId.trim(), 2).size() > 1;
+    }
+
+    /**
+     * Short poll IDs starting with the given prefix, for tab completion. Served from memory
+     * only, so it may be called from async tab-complete threads.
+     *
+     * @param activeOnly only suggest polls that are still open
+     */
+    public List<String> getPollIdCompletions(String prefix, boolean activeOnly, int limit) {
+        if (!activeOnly) {
+            return pollIds.complete(prefix, SHORT_ID_LENGTH, limit);
+        }
+
+        String key = prefix != null ? prefix.trim().toLowerCase(Locale.ROOT) : "";
+        List<String> completions = new ArrayList<>();
+        for (UUID pollUUID : activePolls.keySet()) {
+            String id = pollUUID.toString();
+            if (id.startsWith(key)) {
+                completions.add(key.length() < SHORT_ID_LENGTH ? id.substring(0, SHORT_ID_LENGTH) : id);
             }
-            return null;
         }
+        Collections.sort(completions);
+        return completions.size() > limit ? new ArrayList<>(completions.subList(0, limit)) : completions;
+    }
+
+    private List<UUID> findPollIdsByPrefix(String prefix) {
+        if (prefix.length() < SHORT_ID_LENGTH) {
+            return Collections.emptyList();
+        }
+
+        List<UUID> matches = pollIds.findByPrefix(prefix, 2);
+        if (matches.isEmpty()) {
+            // Polls created elsewhere (e.g. another server on the same database) are not indexed yet
+            matches = storage.findPollIdsByPrefix(prefix, 2);
+            matches.forEach(pollIds::add);
+        }
+        return matches;
+    }
+
+    // Async API: storage work runs on the storage executor and every returned future
+    // completes on the main thread, so callbacks may use players, menus and other Bukkit state.
+    // Concurrent reads of the same poll, page or count share one storage call.
+
+    public CompletableFuture<Poll> getPollAsync(UUID pollUUID) {
+        if (pollUUID == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Poll poll = activePolls.get(pollUUID);
+        if (poll != null) {
+            return poll.isActive() ? CompletableFuture.completedFuture(poll)
+                    : onMainThread(loads.load(Arrays.asList("poll", pollUUID), () -> storage.supplyAsync(() -> getPoll(pollUUID))));
+        }
+
+        Poll cached = closedPolls.get(pollUUID);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return onMainThread(loads.load(Arrays.asList("poll", pollUUID), () -> storage.supplyAsync(() -> loadPoll(pollUUID))));
+    }
+
+    /**
+     * Async {@link #getPoll(String)}; short IDs found in the index skip the storage lookup
+     */
+    public CompletableFuture<Poll> getPollAsync(String pollId) {
+        if (pollId == null || pollId.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        try {
+            return getPollAsync(UUID.fromString(pollId));
+        } catch (IllegalArgumentException e) {
+            String prefix = pollId.trim();
+            List<UUID> matches = prefix.length() >= SHORT_ID_LENGTH ? pollIds.findByPrefix(prefix, 2) : Collections.emptyList();
+            if (matches.size() == 1) {
+                return getPollAsync(matches.get(0));
+            }
+            if (matches.size() > 1 || prefix.length() < SHORT_ID_LENGTH) {
+                return CompletableFuture.completedFuture(null);
+            }
+            String key = prefix.toLowerCase(Locale.ROOT);
+            return onMainThread(loads.load(Arrays.asList("prefix", key), () -> storage.supplyAsync(() -> getPoll(key))));
+        }
+    }
+
+    public CompletableFuture<Boolean> savePollAsync(Poll poll) {
+        return onMainThread(storage.supplyAsync(() -> savePoll(poll)));
+    }
+
+    /**
+     * Async {@link #closePoll(UUID)}; the closure is announced once it has been persisted
+     */
+    public CompletableFuture<Boolean> closePollAsync(UUID pollUUID) {
+        Poll poll = pollUUID != null ? activePolls.get(pollUUID) : null;
+        if (poll == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        CompletableFuture<Boolean> persisted = deactivate(poll);
+        if (persisted == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // Closed either way; a failed write has been logged
+        return onMainThread(persisted).thenApply(stored -> {
+            notifyPollClosed(poll);
+            return true;
+        });
+    }
+
+    public CompletableFuture<Boolean> removePollAsync(UUID pollUUID) {
+        return onMainThread(storage.supplyAsync(() -> removePoll(pollUUID)));
+    }
+
+    /**
+     * Gets a page of closed polls. The page is loaded once for everyone viewing it at the
+     * same time; the viewer's own votes on it are looked up separately.
+     */
+    public CompletableFuture<PollPage> getClosedPollPageAsync(int page, int pageSize, UUID viewerUUID) {
+        CompletableFuture<PollPage> shared = loads.load(Arrays.asList("closed", page, pageSize),
+                () -> storage.getClosedPollPageAsync(page, pageSize, null));
+        if (viewerUUID == null) {
+            return onMainThread(shared);
+        }
+
+        return onMainThread(shared.thenCompose(closedPolls -> closedPolls.isEmpty()
+                ? CompletableFuture.completedFuture(closedPolls)
+                : storage.getPlayerVotesAsync(viewerUUID, closedPolls.getPollUUIDs()).thenApply(closedPolls::withViewerVotes)));
+    }
+
+    public CompletableFuture<PollPage> getPollPageByCreatorAsync(UUID creatorUUID, int page, int pageSize) {
+        return onMainThread(loads.load(Arrays.asList("creator", creatorUUID, page, pageSize),
+                () -> storage.getPollPageByCreatorAsync(creatorUUID, page, pageSize)));
+    }
+
+    public CompletableFuture<Long> getClosedPollCountAsync() {
+        return onMainThread(loads.load(Arrays.asList("closedCount"), storage::countClosedPollsAsync));
+    }
+
+    public CompletableFuture<Long> getClosedPollCountByCreatorAsync(UUID creatorUUID) {
+        return onMainThread(loads.load(Arrays.asList("closedCount", creatorUUID),
+                () -> storage.countClosedPollsByCreatorAsync(creatorUUID)));
+    }
+
+    private static <T> CompletableFuture<T> onMainThread(CompletableFuture<T> future) {
+        return future.whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                PollPlugin.getInstance().getLogger().warning("Async storage call failed: " + error.getMessage());
+            }
+        }, MainThreadExecutor.INSTANCE);
     }
 
     public boolean hasPermission(Player player, String permission) {
@@ -360,50 +739,44 @@ public class PollManager {
         return parseDuration(duration) != null;
     }
 
-    public void refreshActivePolls() {
-        try {
-            // Reload polls from database and update cache
-            loadActivePolls();
-        } catch (Exception e) {
-            PollPlugin.getInstance().getLogger().warning("Failed to refresh active polls: " + e.getMessage());
-        }
-    }
-
     public int getActivePollCount() {
         return getActivePolls().size();
     }
 
-    public List<Poll> getPollsByCreator(UUID creatorUUID) {
-        if (creatorUUID == null) {
-            return new ArrayList<>();
-        }
+    /**
+     * Version of the poll data held by this manager. It changes whenever a vote is cast or
+     * a poll is created, closed or deleted, and stays the same otherwise.
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
 
-        try {
-            return storage.getPollsByCreator(creatorUUID);
-        } catch (Exception e) {
-            PollPlugin.getInstance().getLogger().warning("Failed to get polls by creator: " + e.getMessage());
-            return new ArrayList<>();
-        }
+    /**
+     * Get queue depth and flush latency metrics of the vote write-behind queue
+     */
+    public Map<String, Object> getVoteQueueStatistics() {
+        return voteQueue.getStatistics();
     }
 
-    public List<Poll> getClosedPolls() {
-        try {
-            return storage.getAllPolls().stream()
-                    .filter(poll -> !poll.isActive())
-                    .collect(Collectors.toList()); // Compatible with older Java versions
-        } catch (Exception e) {
-            PollPlugin.getInstance().getLogger().warning("Failed to get closed polls: " + e.getMessage());
-            return new ArrayList<>();
-        }
+    /**
+     * Get size and hit rate of the closed poll cache
+     */
+    public Map<String, Object> getClosedPollCacheStatistics() {
+        return closedPolls.getStatistics();
     }
 
-    public List<Poll> getAllPolls() {
-        try {
-            return storage.getAllPolls();
-        } catch (Exception e) {
-            PollPlugin.getInstance().getLogger().warning("Failed to get all polls: " + e.getMessage());
-            return new ArrayList<>();
-        }
+    /**
+     * Get how many storage reads were started and how many requests shared one instead
+     */
+    public Map<String, Object> getLoadCoalescingStatistics() {
+        return loads.getStatistics();
+    }
+
+    /**
+     * Get append and fsync metrics of the vote journal, or an empty map if it is disabled
+     */
+    public Map<String, Object> getVoteJournalStatistics() {
+        return voteJournal != null ? voteJournal.getStatistics() : Collections.emptyMap();
     }
 
     public long getRemainingCooldown(UUID playerUUID) {
@@ -418,12 +791,18 @@ public class PollManager {
 
     public void shutdown() {
         try {
-            if (cleanupTask != null && !cleanupTask.isCancelled()) {
-                cleanupTask.cancel();
-            }
+            expiryScheduler.shutdown();
 
             // Final cleanup of expired polls
-            cleanupExpiredPolls();
+            closeExpiredPolls();
+
+            // Persist any votes still waiting in the write-behind queue
+            voteQueue.shutdown();
+
+            // Votes that could not be stored stay in the journal for the next start
+            if (voteJournal != null) {
+                voteJournal.close();
+            }
 
             PollPlugin.getInstance().getLogger().info("PollManager shutdown complete");
         } catch (Exception e) {
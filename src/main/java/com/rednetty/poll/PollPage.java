@@ -0,0 +1,79 @@
+package com.rednetty.poll;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One page of poll summaries, with the number of polls matching the whole query
+ */
+public final class PollPage {
+    private final List<PollSummary> items;
+    private final int page;
+    private final int pageSize;
+    private final long totalCount;
+
+    public PollPage(List<PollSummary> items, int page, int pageSize, long totalCount) {
+        this.items = Collections.unmodifiableList(items);
+        this.page = page;
+        this.pageSize = pageSize;
+        this.totalCount = totalCount;
+    }
+
+    public static PollPage empty(int page, int pageSize) {
+        return new PollPage(Collections.emptyList(), page, pageSize, 0);
+    }
+
+    /**
+     * The same page with each summary carrying the viewer's vote
+     *
+     * @param viewerVotes option index the viewer voted for, by poll; polls they did not vote on are left out
+     */
+    PollPage withViewerVotes(Map<UUID, Integer> viewerVotes) {
+        List<PollSummary> viewed = new ArrayList<>(items.size());
+        for (PollSummary summary : items) {
+            viewed.add(summary.withViewerVote(viewerVotes.getOrDefault(summary.getPollUUID(), -1)));
+        }
+        return new PollPage(viewed, page, pageSize, totalCount);
+    }
+
+    /**
+     * IDs of the polls on this page
+     */
+    List<UUID> getPollUUIDs() {
+        List<UUID> ids = new ArrayList<>(items.size());
+        for (PollSummary summary : items) {
+            ids.add(summary.getPollUUID());
+        }
+        return ids;
+    }
+
+    public List<PollSummary> getItems() {
+        return items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Number of polls matching the query, across all pages
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public int getTotalPages() {
+        return pageSize > 0 ? (int) ((totalCount + pageSize - 1) / pageSize) : 0;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,180 @@
+package com.rednetty.poll;
+
+import org.bson.Document;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only view of a poll for list menus, loaded without its votes. Results come from
+ * the stored per-option counters, so they may trail the live poll by one vote flush.
+ * Load the full poll with {@link PollManager#getPoll(UUID)} before acting on it.
+ */
+public final class PollSummary {
+    private final UUID pollUUID;
+    private final UUID creatorUUID;
+    private final String question;
+    private final List<String> options;
+    private final int[] tallies;
+    private final int totalVotes;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime expiresAt;
+    private final boolean active;
+    private final int viewerVote;
+
+    PollSummary(UUID pollUUID, UUID creatorUUID, String question, List<String> options, int[] tallies,
+                LocalDateTime createdAt, LocalDateTime expiresAt, boolean active, int viewerVote) {
+        this.pollUUID = pollUUID;
+        this.creatorUUID = creatorUUID;
+        this.question = question;
+        this.options = Collections.unmodifiableList(new ArrayList<>(options));
+        this.tallies = new int[options.size()];
+        System.arraycopy(tallies, 0, this.tallies, 0, Math.min(tallies.length, this.tallies.length));
+        int total = 0;
+        for (int count : this.tallies) {
+            total += count;
+        }
+        this.totalVotes = total;
+        this.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.active = active;
+        this.viewerVote = viewerVote;
+    }
+
+    /**
+     * Builds a summary from a projected poll document (see {@link MongoQueries#summaryProjection})
+     */
+    static PollSummary fromDocument(Document doc) {
+        UUID pollUUID = Poll.readUuid(doc.get("_id"));
+        UUID creatorUUID = Poll.readUuid(doc.get("creatorUUID"));
+        String question = doc.getString("question");
+
+        List<String> options = new ArrayList<>();
+        List<?> storedOptions = doc.get("options", List.class);
+        if (storedOptions != null) {
+            for (Object option : storedOptions) {
+                if (option instanceof String) {
+                    options.add((String) option);
+                }
+            }
+        }
+
+        int[] tallies = new int[options.size()];
+        List<?> storedTallies = doc.get("tallies", List.class);
+        if (storedTallies != null) {
+            for (int i = 0; i < tallies.length && i < storedTallies.size(); i++) {
+                Object count = storedTallies.get(i);
+                tallies[i] = count instanceof Number ? ((Number) count).intValue() : 0;
+            }
+        }
+
+        Object viewerVote = doc.get("viewerVote");
+        int viewerOrdinal = viewerVote instanceof Number ? ((Number) viewerVote).intValue() : -1;
+
+        return new PollSummary(pollUUID, creatorUUID, question, options, tallies,
+                Poll.readDateTime(doc.get("createdAt")), Poll.readDateTime(doc.get("expiresAt")),
+                doc.getBoolean("active", true), viewerOrdinal);
+    }
+
+    /**
+     * Builds a summary from a loaded poll, for backends that keep whole polls
+     *
+     * @param viewerUUID player whose own vote should be included, or null
+     */
+    static PollSummary of(Poll poll, UUID viewerUUID) {
+        synchronized (poll) {
+            List<String> options = poll.getOptions();
+            int[] tallies = new int[options.size()];
+            for (int i = 0; i < tallies.length; i++) {
+                tallies[i] = poll.getVotesForOption(options.get(i));
+            }
+
+            String viewerVote = viewerUUID != null ? poll.getPlayerVote(viewerUUID) : null;
+            return new PollSummary(poll.getPollUUID(), poll.getCreatorUUID(), poll.getQuestion(), options, tallies,
+                    poll.getCreatedAt(), poll.getExpiresAt(), poll.isActive(),
+                    viewerVote != null ? options.indexOf(viewerVote) : -1);
+        }
+    }
+
+    /**
+     * The same summary with the vote of the player it is shown to
+     *
+     * @param viewerVote index of the option the player voted for, or -1
+     */
+    PollSummary withViewerVote(int viewerVote) {
+        return new PollSummary(pollUUID, creatorUUID, question, options, tallies, createdAt, expiresAt, active, viewerVote);
+    }
+
+    public UUID getPollUUID() {
+        return pollUUID;
+    }
+
+    public UUID getCreatorUUID() {
+        return creatorUUID;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isActive() {
+        return active && (expiresAt == null || !LocalDateTime.now().isAfter(expiresAt));
+    }
+
+    public int getTotalVotes() {
+        return totalVotes;
+    }
+
+    public int getVotesForOption(String option) {
+        int index = option != null ? options.indexOf(option) : -1;
+        return index >= 0 ? tallies[index] : 0;
+    }
+
+    public String getWinningOption() {
+        int best = -1;
+        for (int i = 0; i < tallies.length; i++) {
+            if (best < 0 || tallies[i] > tallies[best]) {
+                best = i;
+            }
+        }
+        return best >= 0 ? options.get(best) : null;
+    }
+
+    /**
+     * The option chosen by the player the summary was loaded for, or null
+     */
+    public String getViewerVote() {
+        return viewerVote >= 0 && viewerVote < options.size() ? options.get(viewerVote) : null;
+    }
+
+    public String getCreatorName() {
+        OfflinePlayer creator = Bukkit.getOfflinePlayer(creatorUUID);
+        String name = creator.getName();
+        return name != null ? name : "Unknown";
+    }
+
+    public String getFormattedCreationDate() {
+        return Poll.formatDate(createdAt);
+    }
+
+    public String getTimeRemaining() {
+        return Poll.formatTimeRemaining(expiresAt);
+    }
+}
@@ -0,0 +1,119 @@
+package com.rednetty.poll;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Adapts Reactive Streams publishers from the MongoDB reactive driver to CompletableFutures.
+ * Scans request results one batch at a time and hand each item over as it arrives, so no
+ * more than a batch is ever buffered, however large the result set.
+ */
+final class Publishers {
+
+    private Publishers() {
+    }
+
+    /**
+     * Completes with the first item, or null if the publisher completes empty
+     */
+    static <T> CompletableFuture<T> first(Publisher<T> publisher) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(T item) {
+                if (future.complete(item)) {
+                    subscription.cancel();
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Passes every item to the action as it arrives, requesting the next batch only once
+     * the previous one has been handled. If the action throws, the subscription is
+     * cancelled and the future fails with that exception.
+     */
+    static <T> CompletableFuture<Void> forEach(Publisher<T> publisher, int batchSize, Consumer<? super T> action) {
+        int batch = Math.max(1, batchSize);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private Subscription subscription;
+            private int remaining;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                remaining = batch;
+                subscription.request(batch);
+            }
+
+            @Override
+            public void onNext(T item) {
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    action.accept(item);
+                } catch (RuntimeException e) {
+                    subscription.cancel();
+                    future.completeExceptionally(e);
+                    return;
+                }
+
+                if (--remaining == 0) {
+                    remaining = batch;
+                    subscription.request(batch);
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Collects every item into a list, skipping nulls
+     */
+    static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher, int batchSize) {
+        List<T> result = new ArrayList<>();
+        return forEach(publisher, batchSize, item -> {
+            if (item != null) {
+                result.add(item);
+            }
+        }).thenApply(done -> result);
+    }
+}
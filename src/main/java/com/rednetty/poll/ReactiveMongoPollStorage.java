@@ -0,0 +1,580 @@
+package com.rednetty.poll;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.rednetty.PollPlugin;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * MongoDB backend on the Reactive Streams driver. Every call is non-blocking I/O: the
+ * async API completes straight from the driver's callbacks without holding a thread
+ * per request, and scans pull documents in batches of mongodb.batch-size with
+ * backpressure instead of draining the whole cursor at once.
+ *
+ * The synchronous methods wait on the same non-blocking calls. Select this backend
+ * with storage.type: mongodb-reactive in config.yml.
+ */
+public class ReactiveMongoPollStorage implements PollStorage {
+    private final PollPlugin plugin;
+    private final MongoSettings settings;
+    private MongoClient mongoClient;
+    private MongoDatabase database;
+    private MongoCollection<Document> pollsCollection;
+    private MongoCollection<Poll> polls;
+    private volatile boolean connected = false;
+    private final ConnectionHealth health;
+
+    // Only used for supplyAsync, which runs blocking callers' work such as PollManager's
+    private final StorageExecutor executor;
+
+    public ReactiveMongoPollStorage(PollPlugin plugin) {
+        this.plugin = plugin;
+        this.health = new ConnectionHealth(plugin.getLogger());
+        this.settings = MongoSettings.load(plugin);
+        this.executor = new StorageExecutor(settings.getAsyncThreads(), settings.getAsyncQueueSize());
+    }
+
+    @Override
+    public PollPlugin getPlugin() {
+        return plugin;
+    }
+
+    @Override
+    public String getStorageId() {
+        return settings.getStorageId();
+    }
+
+    @Override
+    public boolean initialize() {
+        int retries = settings.getMaxRetries();
+        for (int attempt = 1; attempt <= retries; attempt++) {
+            try {
+                plugin.getLogger().info("Attempting to connect to MongoDB with the reactive driver (attempt " + attempt + "/" + retries + ")");
+
+                mongoClient = MongoClients.create(settings.toClientSettings(health));
+                database = mongoClient.getDatabase(settings.getDatabaseName());
+                pollsCollection = database.getCollection(settings.getCollectionName());
+                polls = database.getCollection(settings.getCollectionName(), Poll.class)
+                        .withCodecRegistry(MongoQueries.CODECS);
+
+                // Test the connection once; from here on liveness is tracked by ConnectionHealth
+                Publishers.first(database.runCommand(new Document("ping", 1)))
+                        .get(settings.getConnectionTimeoutMs() + settings.getSocketTimeoutMs(), TimeUnit.MILLISECONDS);
+                health.recordSuccess();
+                connected = true;
+
+                createIndexes();
+
+                plugin.getLogger().info("Successfully connected to MongoDB database: " + settings.getDatabaseName());
+                return true;
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                Throwable cause = unwrap(e);
+                plugin.getLogger().warning("Failed to connect to MongoDB (attempt " + attempt + "/" + retries + "): " + cause.getMessage());
+                if (mongoClient != null) {
+                    mongoClient.close();
+                    mongoClient = null;
+                }
+
+                if (attempt < retries) {
+                    try {
+                        Thread.sleep(2000 * attempt); // Exponential backoff
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                } else {
+                    plugin.getLogger().severe("Failed to connect to MongoDB after " + retries + " attempts");
+                    plugin.getLogger().severe("Connection string: " + settings.getConnectionString());
+                    plugin.getLogger().severe("Database: " + settings.getDatabaseName());
+                    plugin.getLogger().severe("Last error: " + cause.getMessage());
+                }
+            }
+        }
+
+        connected = false;
+        return false;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected && health.isHealthy();
+    }
+
+    @Override
+    public ConnectionHealth getConnectionHealth() {
+        return health;
+    }
+
+    @Override
+    public boolean testConnection() {
+        if (database == null) {
+            return false;
+        }
+        return await(recover(Publishers.first(database.runCommand(new Document("ping", 1))).thenApply(result -> true),
+                false, "pinging the database"), false);
+    }
+
+    // Non-blocking API. Each future completes on a driver thread; failures are logged
+    // and turned into the same fallback values the blocking methods return.
+
+    @Override
+    public CompletableFuture<Poll> getPollAsync(UUID pollUUID) {
+        if (!isConnected() || pollUUID == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return recover(Publishers.first(polls.find(MongoQueries.idFilter(pollUUID)).first())
+                .thenApply(PollCodec::valid), null, "getting poll");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> savePollAsync(Poll poll) {
+        if (!isConnected()) {
+            plugin.getLogger().warning("Cannot save poll - not connected to database");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        if (poll == null) {
+            plugin.getLogger().warning("Cannot save null poll");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return recover(Publishers.first(polls.replaceOne(
+                MongoQueries.idFilter(poll.getPollUUID()),
+                poll,
+                new ReplaceOptions().upsert(true)
+        )).thenApply(result -> true), false, "saving poll");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deletePollAsync(UUID pollUUID) {
+        if (!isConnected() || pollUUID == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return recover(Publishers.first(pollsCollection.deleteOne(MongoQueries.idFilter(pollUUID)))
+                .thenApply(result -> true), false, "deleting poll");
+    }
+
+    @Override
+    public CompletableFuture<PollPage> getClosedPollPageAsync(int page, int pageSize, UUID viewerUUID) {
+        return findPollPage(MongoQueries.closedFilter(), page, pageSize, viewerUUID);
+    }
+
+    @Override
+    public CompletableFuture<PollPage> getPollPageByCreatorAsync(UUID creatorUUID, int page, int pageSize) {
+        if (creatorUUID == null) {
+            return CompletableFuture.completedFuture(PollPage.empty(page, pageSize));
+        }
+        return findPollPage(MongoQueries.creatorFilter(creatorUUID), page, pageSize, null);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Integer>> getPlayerVotesAsync(UUID playerUUID, Collection<UUID> pollUUIDs) {
+        Map<UUID, Integer> votes = new HashMap<>();
+        if (!isConnected() || playerUUID == null || pollUUIDs == null || pollUUIDs.isEmpty()) {
+            return CompletableFuture.completedFuture(votes);
+        }
+
+        return recover(Publishers.forEach(
+                pollsCollection.aggregate(MongoQueries.playerVotesPipeline(playerUUID, pollUUIDs)),
+                pollUUIDs.size(),
+                document -> MongoQueries.readPlayerVote(document, votes)
+        ).thenApply(done -> votes), new HashMap<>(), "loading player votes");
+    }
+
+    @Override
+    public CompletableFuture<Long> countClosedPollsAsync() {
+        return countPolls(MongoQueries.closedFilter(), "counting closed polls");
+    }
+
+    @Override
+    public CompletableFuture<Long> countClosedPollsByCreatorAsync(UUID creatorUUID) {
+        if (creatorUUID == null) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        return countPolls(MongoQueries.closedByCreatorFilter(creatorUUID), "counting closed polls");
+    }
+
+    public CompletableFuture<Map<UUID, AppendOutcome>> appendVotesAsync(List<VoteRecord> votes) {
+        if (!isConnected()) {
+            plugin.getLogger().warning("Cannot append votes - not connected to database");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (votes == null || votes.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+
+        return recover(Publishers.first(pollsCollection.bulkWrite(
+                MongoQueries.appendVoteUpdates(votes), new BulkWriteOptions().ordered(false)
+        )).thenCompose(result -> {
+            if (result.getModifiedCount() == votes.size()) {
+                return CompletableFuture.completedFuture(MongoQueries.allStored(votes));
+            }
+
+            // Some votes were skipped; the schema versions tell which polls still need a full write
+            return Publishers.toList(pollsCollection.find(Filters.in("_id", MongoQueries.votePollIds(votes)))
+                            .projection(Projections.include("schemaVersion")), votes.size())
+                    .thenApply(versions -> MongoQueries.appendOutcomes(votes, versions));
+        }), null, "appending votes");
+    }
+
+    /**
+     * Async {@link #forEachActivePoll}; the visitor runs on a driver thread
+     */
+    public CompletableFuture<Boolean> forEachActivePollAsync(int batchSize, Consumer<? super Poll> visitor) {
+        return scanPolls(MongoQueries.activeFilter(), batchSize, visitor, "scanning active polls");
+    }
+
+    public CompletableFuture<Boolean> forEachPollAsync(int batchSize, Consumer<? super Poll> visitor) {
+        return scanPolls(new Document(), batchSize, visitor, "scanning all polls");
+    }
+
+    public CompletableFuture<Boolean> forEachPollByCreatorAsync(UUID creatorUUID, int batchSize, Consumer<? super Poll> visitor) {
+        if (creatorUUID == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return scanPolls(MongoQueries.creatorFilter(creatorUUID), batchSize, visitor, "scanning polls by creator");
+    }
+
+    public CompletableFuture<List<UUID>> getAllPollIdsAsync() {
+        return findPollIds(new Document(), 0);
+    }
+
+    public CompletableFuture<List<UUID>> findPollIdsByPrefixAsync(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        return findPollIds(MongoQueries.idPrefixFilter(prefix), limit);
+    }
+
+    /**
+     * Closes every expired active poll with one updateMany over the active/expiresAt index
+     *
+     * @return the number of polls this call closed
+     */
+    public CompletableFuture<Long> cleanupExpiredPollsAsync() {
+        if (!isConnected()) {
+            return CompletableFuture.completedFuture(0L);
+        }
+
+        CompletableFuture<Long> cleanup = Publishers.first(
+                pollsCollection.updateMany(MongoQueries.activeExpiredFilter(), MongoQueries.closeUpdate())
+        ).thenApply(result -> {
+            long updated = result != null ? result.getModifiedCount() : 0;
+            if (updated > 0) {
+                plugin.getLogger().info("Cleaned up " + updated + " expired polls from database");
+            }
+            return updated;
+        });
+        return recover(cleanup, 0L, "cleaning up expired polls");
+    }
+
+    /**
+     * Streams the polls matching the filter, requesting the next batch only once the
+     * visitor has handled the previous one. A throwing visitor cancels the cursor.
+     */
+    private CompletableFuture<Boolean> scanPolls(Bson filter, int batchSize, Consumer<? super Poll> visitor, String action) {
+        if (!isConnected()) {
+            plugin.getLogger().warning("Cannot scan polls - not connected to database");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        int batch = batchSize > 0 ? batchSize : settings.getBatchSize();
+        return recover(Publishers.forEach(polls.find(filter).batchSize(batch), batch, poll -> {
+            // Malformed documents arrive as PollCodec.MALFORMED, since null items would end the stream
+            if (PollCodec.valid(poll) != null) {
+                visitor.accept(poll);
+            }
+        }).thenApply(done -> true), false, action);
+    }
+
+    private CompletableFuture<List<UUID>> findPollIds(Bson filter, int limit) {
+        if (!isConnected()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        List<UUID> result = new ArrayList<>();
+        CompletableFuture<Void> scan = Publishers.forEach(
+                pollsCollection.find(filter)
+                        .projection(Projections.include("_id"))
+                        .limit(limit)
+                        .batchSize(settings.getBatchSize()),
+                settings.getBatchSize(),
+                document -> {
+                    try {
+                        result.add(Poll.readUuid(document.get("_id")));
+                    } catch (Exception e) {
+                        plugin.getLogger().warning("Skipping poll with invalid ID: " + document.get("_id"));
+                    }
+                });
+        return recover(scan.thenApply(done -> result), new ArrayList<>(), "loading poll IDs");
+    }
+
+    private CompletableFuture<Long> countPolls(Bson filter, String action) {
+        if (!isConnected()) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        return recover(Publishers.first(pollsCollection.countDocuments(filter)), 0L, action);
+    }
+
+    /**
+     * Runs the count and the page query concurrently; see {@link MongoQueries#pagePipeline}
+     */
+    private CompletableFuture<PollPage> findPollPage(Bson filter, int page, int pageSize, UUID viewerUUID) {
+        int safePage = Math.max(0, page);
+        int safePageSize = Math.max(1, pageSize);
+        if (!isConnected()) {
+            plugin.getLogger().warning("Cannot load polls - not connected to database");
+            return CompletableFuture.completedFuture(PollPage.empty(safePage, safePageSize));
+        }
+
+        CompletableFuture<Long> totalCount = Publishers.first(pollsCollection.countDocuments(filter));
+
+        List<PollSummary> items = new ArrayList<>(safePageSize);
+        CompletableFuture<Void> pageItems = Publishers.forEach(
+                pollsCollection.aggregate(MongoQueries.pagePipeline(filter, safePage, safePageSize, viewerUUID)),
+                safePageSize,
+                document -> {
+                    try {
+                        items.add(PollSummary.fromDocument(document));
+                    } catch (Exception e) {
+                        plugin.getLogger().warning("Failed to parse poll summary from document: " + e.getMessage());
+                    }
+                });
+
+        CompletableFuture<PollPage> result = CompletableFuture.allOf(totalCount, pageItems).thenApply(done -> {
+            long count = totalCount.join() != null ? totalCount.join() : 0;
+            if (count == 0) {
+                return PollPage.empty(safePage, safePageSize);
+            }
+            return new PollPage(items, safePage, safePageSize, count);
+        });
+        return recover(result, PollPage.empty(safePage, safePageSize), "loading poll page");
+    }
+
+    // Blocking API: waits on the non-blocking calls above
+
+    @Override
+    public boolean savePoll(Poll poll) {
+        return await(savePollAsync(poll), false);
+    }
+
+    @Override
+    public boolean updatePoll(Poll poll) {
+        return savePoll(poll); // MongoDB upsert handles both insert and update
+    }
+
+    @Override
+    public Map<UUID, AppendOutcome> appendVotes(List<VoteRecord> votes) {
+        return await(appendVotesAsync(votes), null);
+    }
+
+    @Override
+    public Poll getPoll(UUID pollUUID) {
+        return await(getPollAsync(pollUUID), null);
+    }
+
+    @Override
+    public boolean deletePoll(UUID pollUUID) {
+        return await(deletePollAsync(pollUUID), false);
+    }
+
+    @Override
+    public boolean pollExists(UUID pollUUID) {
+        if (!isConnected() || pollUUID == null) {
+            return false;
+        }
+        return await(countPolls(MongoQueries.idFilter(pollUUID), "checking poll existence"), 0L) > 0;
+    }
+
+    @Override
+    public boolean forEachActivePoll(int batchSize, Consumer<? super Poll> visitor) {
+        return awaitScan(forEachActivePollAsync(batchSize, visitor));
+    }
+
+    @Override
+    public boolean forEachPoll(int batchSize, Consumer<? super Poll> visitor) {
+        return awaitScan(forEachPollAsync(batchSize, visitor));
+    }
+
+    @Override
+    public boolean forEachPollByCreator(UUID creatorUUID, int batchSize, Consumer<? super Poll> visitor) {
+        return awaitScan(forEachPollByCreatorAsync(creatorUUID, batchSize, visitor));
+    }
+
+    @Override
+    public List<UUID> getAllPollIds() {
+        return await(getAllPollIdsAsync(), new ArrayList<>());
+    }
+
+    @Override
+    public List<UUID> findPollIdsByPrefix(String prefix, int limit) {
+        return await(findPollIdsByPrefixAsync(prefix, limit), new ArrayList<>());
+    }
+
+    @Override
+    public long getActivePollCount() {
+        return await(countPolls(MongoQueries.activeFilter(), "counting active polls"), 0L);
+    }
+
+    @Override
+    public long getTotalPollCount() {
+        return await(countPolls(new Document(), "counting total polls"), 0L);
+    }
+
+    @Override
+    public PollPage getClosedPollPage(int page, int pageSize, UUID viewerUUID) {
+        return await(getClosedPollPageAsync(page, pageSize, viewerUUID), PollPage.empty(page, pageSize));
+    }
+
+    @Override
+    public PollPage getPollPageByCreator(UUID creatorUUID, int page, int pageSize) {
+        return await(getPollPageByCreatorAsync(creatorUUID, page, pageSize), PollPage.empty(page, pageSize));
+    }
+
+    @Override
+    public Map<UUID, Integer> getPlayerVotes(UUID playerUUID, Collection<UUID> pollUUIDs) {
+        return await(getPlayerVotesAsync(playerUUID, pollUUIDs), new HashMap<>());
+    }
+
+    @Override
+    public long countClosedPolls() {
+        return await(countClosedPollsAsync(), 0L);
+    }
+
+    @Override
+    public long countClosedPollsByCreator(UUID creatorUUID) {
+        return await(countClosedPollsByCreatorAsync(creatorUUID), 0L);
+    }
+
+    @Override
+    public long cleanupExpiredPolls() {
+        return await(cleanupExpiredPollsAsync(), 0L);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return executor.supply(task);
+    }
+
+    @Override
+    public int getPendingAsyncCount() {
+        return executor.getQueuedCount();
+    }
+
+    public boolean createIndexes() {
+        if (!isConnected()) {
+            return false;
+        }
+
+        List<IndexModel> indexes = MongoQueries.indexes();
+        boolean created = await(recover(Publishers.toList(pollsCollection.createIndexes(indexes), indexes.size())
+                .thenApply(names -> true), false, "creating indexes"), false);
+        if (created) {
+            plugin.getLogger().info("MongoDB indexes created successfully");
+        }
+        return created;
+    }
+
+    @Override
+    public void close() {
+        // Let queued async calls finish while the client is still open
+        executor.shutdown(plugin.getLogger());
+
+        try {
+            connected = false;
+            health.markDown("storage closed");
+            if (mongoClient != null) {
+                mongoClient.close();
+                plugin.getLogger().info("MongoDB connection closed");
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to close MongoDB connection: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Logs a failed call and completes with the fallback instead, recording connectivity
+     * errors against the connection health
+     */
+    private <T> CompletableFuture<T> recover(CompletableFuture<T> future, T fallback, String action) {
+        return future.exceptionally(error -> {
+            Throwable cause = unwrap(error);
+            if (cause instanceof MongoException) {
+                plugin.getLogger().severe("MongoDB error while " + action + ": " + cause.getMessage());
+                health.recordFailure(cause);
+            } else {
+                plugin.getLogger().severe("Failed " + action + ": " + cause.getMessage());
+            }
+            return fallback;
+        });
+    }
+
+    /**
+     * Waits for a call made through {@link #recover}, giving up after the connect and
+     * socket timeouts have both passed
+     */
+    private <T> T await(CompletableFuture<T> future, T fallback) {
+        try {
+            return future.get(settings.getConnectionTimeoutMs() + settings.getSocketTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Timed out waiting for MongoDB");
+        } catch (ExecutionException e) {
+            plugin.getLogger().warning("MongoDB call failed: " + unwrap(e).getMessage());
+        }
+        return fallback;
+    }
+
+    /**
+     * Waits for a scan made through {@link #scanPolls}. There is no overall deadline as in
+     * {@link #await}, since a scan runs as long as its result set is large; each batch is
+     * still bounded by the driver's socket timeout.
+     */
+    private boolean awaitScan(CompletableFuture<Boolean> scan) {
+        try {
+            return scan.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().warning("MongoDB scan failed: " + unwrap(e).getMessage());
+        }
+        return false;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,66 @@
+package com.rednetty.poll;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key. While a load is in flight, further
+ * requests for its key share its future instead of starting their own, so a burst of
+ * players opening the same poll or page costs one storage read. Results are not kept
+ * once the load completes. Safe for concurrent use.
+ */
+public class SingleFlight {
+    private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Returns the in-flight load for the key, or starts one with the loader
+     *
+     * @param key equality-comparable key identifying the request, e.g. a list of its arguments
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> load(Object key, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<?> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return (CompletableFuture<T>) existing;
+        }
+
+        loads.incrementAndGet();
+        CompletableFuture<T> source;
+        try {
+            source = loader.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            return flight;
+        }
+
+        source.whenComplete((result, error) -> {
+            // Leave the map first, so requests arriving after completion start a fresh load
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(result);
+            }
+        });
+        return flight;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.size());
+        stats.put("loads", loads.get());
+        stats.put("coalesced", coalesced.get());
+        return stats;
+    }
+}
@@ -0,0 +1,64 @@
+package com.rednetty.poll;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of daemon threads for running blocking storage calls off the server thread
+ */
+final class StorageExecutor {
+    private final ThreadPoolExecutor executor;
+
+    StorageExecutor(int threads, int queueSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads, threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                task -> {
+                    Thread thread = new Thread(task, "PollPlugin-Storage-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the task on the pool. If the queue is full the returned future fails with a
+     * RejectedExecutionException instead of blocking.
+     */
+    <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Lets queued tasks finish for up to five seconds, then drops the rest
+     */
+    void shutdown(Logger logger) {
+        try {
+            executor.shutdown();
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Storage tasks did not finish in time, " + executor.shutdownNow().size() + " were dropped");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
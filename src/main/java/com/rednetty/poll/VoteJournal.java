@@ -0,0 +1,625 @@
+package com.rednetty.poll;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal for votes that are still on their way to storage. Each accepted
+ * vote is appended to a memory-mapped segment file as a checksummed record, so it
+ * survives the server process being killed, and a writer thread forces new records to
+ * disk in groups: every vote appended while one force is running is covered by the next
+ * one. Callers that must not acknowledge a vote before it is durable wait on
+ * {@link #awaitDurable(long)}.
+ *
+ * Once storage has a vote the entry is released, and a segment whose entries have all
+ * been released is emptied and kept for reuse rather than deleted, as a file cannot be
+ * deleted on every platform while it is still mapped. Empty segments are deleted on the
+ * next start, before anything maps them. Segments left over from a crash are read back by
+ * {@link #open(String)} so their votes can be replayed into storage. Each segment records
+ * the storage it was written for, and segments of another storage are left alone.
+ */
+public class VoteJournal {
+    private static final int SEGMENT_MAGIC = 0x564F5445; // "VOTE"
+    private static final int SEGMENT_VERSION = 2; // 1 had no storage ID
+    private static final int SEGMENT_FIXED_HEADER_BYTES = 8 + 2; // magic, version, storage ID length
+    private static final int RECORD_HEADER_BYTES = 8; // length + CRC32
+    private static final int RECORD_FIXED_BYTES = 8 + 16 + 16 + 4 + 2; // sequence, poll, player, option index, option length
+    private static final String SEGMENT_PREFIX = "votes-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Logger logger;
+
+    // Guarded by this
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final Deque<Segment> freeSegments = new ArrayDeque<>();
+    private final Set<Segment> unforced = new LinkedHashSet<>();
+    private final NavigableMap<Long, CompletableFuture<Void>> waiters = new TreeMap<>();
+    private final List<RecoveredSegment> recoveredSegments = new ArrayList<>();
+    private byte[] storageId;
+    private Segment current;
+    private long nextSequence = 1;
+    private long nextSegmentNumber = 1;
+    private long writtenSequence = 0;
+    private long durableSequence = 0;
+    private boolean running = false;
+    private Thread writer;
+
+    // Metrics
+    private final AtomicLong appendedVotes = new AtomicLong();
+    private final AtomicLong forceCount = new AtomicLong();
+    private final AtomicLong totalForceNanos = new AtomicLong();
+
+    /**
+     * @param segmentSize size each segment file is preallocated to, in bytes
+     */
+    public VoteJournal(Path directory, int segmentSize, Logger logger) {
+        this.directory = directory;
+        this.segmentSize = Math.max(4096, segmentSize);
+        this.logger = logger;
+    }
+
+    /**
+     * Reads every segment left in the journal directory and starts the writer thread
+     *
+     * @param storageId {@link PollStorage#getStorageId()} of the storage votes are written to
+     * @return the votes found in existing segments written for this storage, or by a
+     * version that did not record it, in the order they were appended. They stay on disk
+     * until {@link #discardRecovered} finds them stored.
+     */
+    public synchronized List<VoteRecord> open(String storageId) throws IOException {
+        this.storageId = storageId.getBytes(StandardCharsets.UTF_8);
+        if (this.storageId.length > Short.MAX_VALUE || SEGMENT_FIXED_HEADER_BYTES + this.storageId.length > segmentSize / 2) {
+            throw new IOException("Storage ID is too long for the vote journal");
+        }
+        Files.createDirectories(directory);
+
+        List<VoteRecord> recovered = new ArrayList<>();
+        TreeMap<Long, Path> existing = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    existing.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    logger.warning("Ignoring unexpected file in vote journal: " + name);
+                }
+            }
+        }
+
+        if (!existing.isEmpty()) {
+            nextSegmentNumber = existing.lastKey() + 1;
+        }
+
+        // Reused segments are named by when they were created, so their votes are ordered by sequence instead
+        int foreign = 0;
+        TreeMap<Long, List<VoteRecord>> ordered = new TreeMap<>();
+        for (Path file : existing.values()) {
+            RecoveredSegment segment = new RecoveredSegment(file);
+            List<VoteRecord> votes = new ArrayList<>();
+            long lastSequence = readSegment(segment, votes);
+            nextSequence = Math.max(nextSequence, lastSequence + 1);
+
+            if (votes.isEmpty()) {
+                if (segment.readable) {
+                    delete(file);
+                }
+                continue;
+            }
+
+            if (segment.storageId != null && !segment.storageId.equals(storageId)) {
+                // Kept as it is, to be replayed once that storage is in use again
+                foreign += votes.size();
+                continue;
+            }
+
+            for (VoteRecord vote : votes) {
+                segment.polls.add(vote.getPollUUID());
+            }
+            ordered.put(segment.firstSequence, votes);
+            recoveredSegments.add(segment);
+        }
+        for (List<VoteRecord> votes : ordered.values()) {
+            recovered.addAll(votes);
+        }
+
+        if (foreign > 0) {
+            logger.warning("Keeping " + foreign + " journaled votes written for another storage, they are replayed once it is in use again");
+        }
+
+        writtenSequence = nextSequence - 1;
+        durableSequence = writtenSequence;
+        running = true;
+        writer = new Thread(this::runWriter, "PollPlugin-VoteJournal");
+        writer.setDaemon(true);
+        writer.start();
+        return recovered;
+    }
+
+    /**
+     * Deletes the segments read by {@link #open(String)} whose votes all belong to polls
+     * that are known to hold them. A missing poll only counts as deleted in a segment that
+     * was written for the current storage; in any other case the segment is kept for
+     * the next start.
+     *
+     * @param storedPolls polls whose journaled votes are all in storage
+     * @param missingPolls polls that do not exist in storage
+     * @return the number of segments kept
+     */
+    public synchronized int discardRecovered(Set<UUID> storedPolls, Set<UUID> missingPolls) {
+        int kept = 0;
+        for (RecoveredSegment segment : recoveredSegments) {
+            boolean ownStorage = segment.storageId != null;
+            boolean resolved = true;
+            for (UUID pollUUID : segment.polls) {
+                if (!storedPolls.contains(pollUUID) && !(ownStorage && missingPolls.contains(pollUUID))) {
+                    resolved = false;
+                    break;
+                }
+            }
+
+            if (resolved) {
+                delete(segment.file);
+            } else {
+                kept++;
+            }
+        }
+        recoveredSegments.clear();
+        return kept;
+    }
+
+    /**
+     * Appends a vote. The record survives the process dying as soon as this returns,
+     * and is forced to disk shortly after.
+     *
+     * @return the vote's sequence number, for {@link #awaitDurable} and {@link #release}
+     */
+    public synchronized long append(UUID pollUUID, UUID playerUUID, String option, int optionIndex) throws IOException {
+        if (!running) {
+            throw new IOException("Vote journal is closed");
+        }
+
+        byte[] optionBytes = option.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = RECORD_FIXED_BYTES + optionBytes.length;
+        int recordLength = RECORD_HEADER_BYTES + bodyLength;
+        if (recordLength > segmentSize - SEGMENT_FIXED_HEADER_BYTES - storageId.length) {
+            throw new IOException("Vote record of " + recordLength + " bytes does not fit in a journal segment");
+        }
+
+        long sequence = nextSequence;
+        if (current == null || current.buffer.remaining() < recordLength) {
+            roll(sequence);
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.putLong(sequence)
+                .putLong(pollUUID.getMostSignificantBits())
+                .putLong(pollUUID.getLeastSignificantBits())
+                .putLong(playerUUID.getMostSignificantBits())
+                .putLong(playerUUID.getLeastSignificantBits())
+                .putInt(optionIndex)
+                .putShort((short) optionBytes.length)
+                .put(optionBytes)
+                .flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        current.buffer.putInt(bodyLength).putInt((int) crc.getValue()).put(body);
+        current.pending++;
+        current.lastSequence = sequence;
+        unforced.add(current);
+
+        nextSequence++;
+        writtenSequence = sequence;
+        appendedVotes.incrementAndGet();
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Completes once the record with the given sequence number has been forced to disk
+     */
+    public synchronized CompletableFuture<Void> awaitDurable(long sequence) {
+        if (sequence <= durableSequence) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!running) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IOException("Vote journal is closed"));
+            return failed;
+        }
+        return waiters.computeIfAbsent(sequence, key -> new CompletableFuture<>());
+    }
+
+    /**
+     * Marks a vote as stored. Segments whose votes have all been released are emptied
+     * for reuse, except the one being appended to.
+     */
+    public synchronized void release(long sequence) {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+        if (entry == null) {
+            return;
+        }
+
+        Segment segment = entry.getValue();
+        if (sequence > segment.lastSequence || segment.pending == 0) {
+            return;
+        }
+
+        segment.pending--;
+        if (segment.pending == 0 && segment != current) {
+            removeSegment(segment);
+        }
+    }
+
+    /**
+     * Forces outstanding records to disk and stops the writer. Segments with unreleased
+     * votes are kept for the next start, and empty ones are deleted by it.
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = writer;
+            writer = null;
+            notifyAll();
+        }
+
+        try {
+            if (thread != null) {
+                thread.join(5000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            forceUnforced();
+            for (CompletableFuture<Void> waiter : waiters.values()) {
+                waiter.completeExceptionally(new IOException("Vote journal is closed"));
+            }
+            waiters.clear();
+
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment.pending == 0) {
+                    removeSegment(segment);
+                }
+            }
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            for (Segment segment : freeSegments) {
+                segment.close();
+            }
+            segments.clear();
+            freeSegments.clear();
+            current = null;
+        }
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        long pending = 0;
+        for (Segment segment : segments.values()) {
+            pending += segment.pending;
+        }
+
+        long forces = forceCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("appendedVotes", appendedVotes.get());
+        stats.put("unreleasedVotes", pending);
+        stats.put("segments", segments.size());
+        stats.put("freeSegments", freeSegments.size());
+        stats.put("durableSequence", durableSequence);
+        stats.put("forces", forces);
+        stats.put("avgForceMs", forces > 0 ? totalForceNanos.get() / (double) forces / 1_000_000.0 : 0.0);
+        return stats;
+    }
+
+    private void runWriter() {
+        while (true) {
+            long target;
+            List<ForceRange> ranges = new ArrayList<>();
+            synchronized (this) {
+                while (running && writtenSequence == durableSequence) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+
+                target = writtenSequence;
+                for (Segment segment : unforced) {
+                    ranges.add(segment.takeForceRange());
+                }
+                unforced.clear();
+            }
+
+            // Force outside the lock so votes keep being appended meanwhile; they go in the next group
+            long start = System.nanoTime();
+            for (ForceRange range : ranges) {
+                range.force(logger);
+            }
+            forceCount.incrementAndGet();
+            totalForceNanos.addAndGet(System.nanoTime() - start);
+
+            synchronized (this) {
+                durableSequence = Math.max(durableSequence, target);
+                Iterator<CompletableFuture<Void>> iterator = waiters.headMap(durableSequence, true).values().iterator();
+                while (iterator.hasNext()) {
+                    iterator.next().complete(null);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void forceUnforced() {
+        for (Segment segment : unforced) {
+            segment.takeForceRange().force(logger);
+        }
+        unforced.clear();
+        durableSequence = writtenSequence;
+    }
+
+    private void roll(long firstSequence) throws IOException {
+        Segment previous = current;
+        current = freeSegments.poll();
+        if (current == null) {
+            current = Segment.create(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentNumber, SEGMENT_SUFFIX)),
+                    segmentSize, storageId);
+            nextSegmentNumber++;
+        }
+        current.reuse(firstSequence);
+        segments.put(firstSequence, current);
+
+        if (previous != null && previous.pending == 0) {
+            removeSegment(previous);
+        }
+    }
+
+    /**
+     * Empties a segment whose votes have all been released and keeps it for reuse
+     */
+    private void removeSegment(Segment segment) {
+        segments.remove(segment.firstSequence);
+        unforced.remove(segment);
+        segment.clear();
+        freeSegments.add(segment);
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warning("Failed to delete vote journal segment " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the storage ID and the records of a segment, up to the first empty,
+     * incomplete or corrupt record. The file is read rather than mapped, so it can be
+     * deleted right after.
+     *
+     * @return the last sequence number found, or 0 if the segment holds no records
+     */
+    private long readSegment(RecoveredSegment segment, List<VoteRecord> recovered) throws IOException {
+        Path file = segment.file;
+        long lastSequence = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < SEGMENT_FIXED_HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                return 0;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read until full
+            }
+            buffer.flip();
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            if (magic != SEGMENT_MAGIC || version < 1 || version > SEGMENT_VERSION) {
+                logger.warning("Skipping vote journal segment with an unknown format: " + file.getFileName());
+                return 0;
+            }
+            if (version >= 2) {
+                byte[] id = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(id);
+                segment.storageId = new String(id, StandardCharsets.UTF_8);
+            }
+            segment.readable = true;
+
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length < RECORD_FIXED_BYTES || length > buffer.remaining()) {
+                    break;
+                }
+
+                ByteBuffer body = buffer.slice();
+                body.limit(length);
+                buffer.position(buffer.position() + length);
+
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    logger.warning("Vote journal segment " + file.getFileName() + " ends with a damaged record");
+                    break;
+                }
+
+                long sequence = body.getLong();
+                UUID pollUUID = new UUID(body.getLong(), body.getLong());
+                UUID playerUUID = new UUID(body.getLong(), body.getLong());
+                int optionIndex = body.getInt();
+                byte[] optionBytes = new byte[body.getShort() & 0xFFFF];
+                body.get(optionBytes);
+
+                recovered.add(new VoteRecord(pollUUID, playerUUID, new String(optionBytes, StandardCharsets.UTF_8), optionIndex));
+                if (segment.firstSequence == 0) {
+                    segment.firstSequence = sequence;
+                }
+                lastSequence = sequence;
+            }
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            logger.warning("Skipping invalid vote in journal segment " + file.getFileName() + ": " + e.getMessage());
+        }
+        return lastSequence;
+    }
+
+    /**
+     * A segment found at startup, with the polls its votes belong to
+     */
+    private static final class RecoveredSegment {
+        private final Path file;
+        private final Set<UUID> polls = new HashSet<>();
+        // Null for segments written before storage IDs were recorded
+        private String storageId;
+        private boolean readable;
+        private long firstSequence;
+
+        private RecoveredSegment(Path file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * A preallocated segment file, mapped read-write. Unused space is zero, which ends
+     * the record list when the segment is read back.
+     */
+    private static final class Segment {
+        private static final byte[] ZEROS = new byte[4096];
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int headerBytes;
+        private long firstSequence;
+        private long lastSequence;
+        private int pending;
+        private int forcedPosition;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.headerBytes = buffer.position();
+            this.forcedPosition = headerBytes;
+        }
+
+        static Segment create(Path file, int size, byte[] storageId) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(SEGMENT_MAGIC).putInt(SEGMENT_VERSION).putShort((short) storageId.length).put(storageId);
+                buffer.force(0, buffer.position());
+                return new Segment(channel, buffer);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Starts appending the votes from the given sequence number on. The segment must be empty.
+         */
+        void reuse(long firstSequence) {
+            this.firstSequence = firstSequence;
+            this.lastSequence = firstSequence - 1;
+            this.pending = 0;
+        }
+
+        /**
+         * Zeroes the records, first the length of the first one so that a crash part way
+         * through already leaves a segment that reads back as empty
+         */
+        void clear() {
+            int end = buffer.position();
+            if (end > headerBytes) {
+                buffer.putInt(headerBytes, 0);
+                buffer.position(headerBytes);
+                while (buffer.position() < end) {
+                    buffer.put(ZEROS, 0, Math.min(ZEROS.length, end - buffer.position()));
+                }
+            }
+            buffer.position(headerBytes);
+            forcedPosition = headerBytes;
+        }
+
+        /**
+         * The bytes written since the last force, which the caller must force
+         */
+        ForceRange takeForceRange() {
+            int end = buffer.position();
+            ForceRange range = new ForceRange(this, forcedPosition, end - forcedPosition);
+            forcedPosition = end;
+            return range;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // The mapping stays valid until it is collected; nothing else to release
+            }
+        }
+    }
+
+    private static final class ForceRange {
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+
+        private ForceRange(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        void force(Logger logger) {
+            if (length <= 0) {
+                return;
+            }
+            try {
+                segment.buffer.force(offset, length);
+            } catch (RuntimeException e) {
+                // Also thrown once the journal was closed; unreleased votes were forced by close
+                if (segment.channel.isOpen()) {
+                    logger.warning("Failed to force vote journal to disk: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.rednetty.poll;
+
+import java.util.UUID;
+
+/**
+ * A single vote as it is appended to storage, without the rest of the poll
+ */
+public final class VoteRecord {
+    private final UUID pollUUID;
+    private final UUID playerUUID;
+    private final String option;
+    private final int optionIndex;
+
+    public VoteRecord(UUID pollUUID, UUID playerUUID, String option, int optionIndex) {
+        if (pollUUID == null || playerUUID == null || option == null || optionIndex < 0) {
+            throw new IllegalArgumentException("Poll UUID, player UUID, option and option index are required");
+        }
+
+        this.pollUUID = pollUUID;
+        this.playerUUID = playerUUID;
+        this.option = option;
+        this.optionIndex = optionIndex;
+    }
+
+    public UUID getPollUUID() {
+        return pollUUID;
+    }
+
+    public UUID getPlayerUUID() {
+        return playerUUID;
+    }
+
+    public String getOption() {
+        return option;
+    }
+
+    /**
+     * Position of the option in the poll's option list, used to address its vote counter
+     */
+    public int getOptionIndex() {
+        return optionIndex;
+    }
+}
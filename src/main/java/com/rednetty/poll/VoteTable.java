@@ -0,0 +1,201 @@
+package com.rednetty.poll;
+
+import java.util.UUID;
+
+/**
+ * Compact vote store: an open-addressing hash table from player UUID to option ordinal.
+ * Each vote takes the two UUID longs plus one byte, with no per-entry objects. Linear
+ * probing with backward-shift deletion keeps lookups short without tombstones.
+ *
+ * Not thread-safe; {@link Poll} guards it with its own monitor.
+ */
+final class VoteTable {
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_ORDINAL = Byte.MAX_VALUE - 1;
+    private static final byte FREE = 0; // Ordinals are stored as ordinal + 1
+
+    private long[] mostSigBits;
+    private long[] leastSigBits;
+    private byte[] ordinals;
+    private int size;
+    private int resizeThreshold;
+
+    VoteTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Visits each vote without materializing UUID objects
+     */
+    interface VoteVisitor {
+        void visit(long mostSigBits, long leastSigBits, int ordinal);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the option ordinal the player voted for, or -1 if they have not voted
+     */
+    int get(UUID playerUUID) {
+        return get(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+    }
+
+    int get(long msb, long lsb) {
+        int mask = ordinals.length - 1;
+        for (int slot = indexFor(msb, lsb, mask); ordinals[slot] != FREE; slot = (slot + 1) & mask) {
+            if (mostSigBits[slot] == msb && leastSigBits[slot] == lsb) {
+                return ordinals[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the previous ordinal for the player, or -1 if they had not voted
+     */
+    int put(UUID playerUUID, int ordinal) {
+        return put(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits(), ordinal);
+    }
+
+    int put(long msb, long lsb, int ordinal) {
+        if (ordinal < 0 || ordinal > MAX_ORDINAL) {
+            throw new IllegalArgumentException("Option ordinal out of range: " + ordinal);
+        }
+
+        int mask = ordinals.length - 1;
+        int slot = indexFor(msb, lsb, mask);
+        while (ordinals[slot] != FREE) {
+            if (mostSigBits[slot] == msb && leastSigBits[slot] == lsb) {
+                int previous = ordinals[slot] - 1;
+                ordinals[slot] = (byte) (ordinal + 1);
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        mostSigBits[slot] = msb;
+        leastSigBits[slot] = lsb;
+        ordinals[slot] = (byte) (ordinal + 1);
+        if (++size > resizeThreshold) {
+            resize(ordinals.length << 1);
+        }
+        return -1;
+    }
+
+    /**
+     * @return the removed ordinal, or -1 if the player had not voted
+     */
+    int remove(UUID playerUUID) {
+        long msb = playerUUID.getMostSignificantBits();
+        long lsb = playerUUID.getLeastSignificantBits();
+        int mask = ordinals.length - 1;
+
+        for (int slot = indexFor(msb, lsb, mask); ordinals[slot] != FREE; slot = (slot + 1) & mask) {
+            if (mostSigBits[slot] == msb && leastSigBits[slot] == lsb) {
+                int previous = ordinals[slot] - 1;
+                deleteSlot(slot);
+                return previous;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rewrites every vote's ordinal through the given mapping. Votes whose ordinal maps
+     * to a negative value (or falls outside the mapping) are removed.
+     */
+    void remap(int[] mapping) {
+        long[] oldMost = mostSigBits;
+        long[] oldLeast = leastSigBits;
+        byte[] oldOrdinals = ordinals;
+
+        allocate(capacityFor(size));
+        for (int slot = 0; slot < oldOrdinals.length; slot++) {
+            if (oldOrdinals[slot] == FREE) {
+                continue;
+            }
+
+            int ordinal = oldOrdinals[slot] - 1;
+            int mapped = ordinal < mapping.length ? mapping[ordinal] : -1;
+            if (mapped >= 0) {
+                put(oldMost[slot], oldLeast[slot], mapped);
+            }
+        }
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    void forEach(VoteVisitor visitor) {
+        for (int slot = 0; slot < ordinals.length; slot++) {
+            if (ordinals[slot] != FREE) {
+                visitor.visit(mostSigBits[slot], leastSigBits[slot], ordinals[slot] - 1);
+            }
+        }
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = ordinals.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+
+        // Shift later entries of the probe run back so lookups never hit a hole
+        while (ordinals[next] != FREE) {
+            int home = indexFor(mostSigBits[next], leastSigBits[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                mostSigBits[gap] = mostSigBits[next];
+                leastSigBits[gap] = leastSigBits[next];
+                ordinals[gap] = ordinals[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        ordinals[gap] = FREE;
+        size--;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldMost = mostSigBits;
+        long[] oldLeast = leastSigBits;
+        byte[] oldOrdinals = ordinals;
+
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldOrdinals.length; slot++) {
+            if (oldOrdinals[slot] != FREE) {
+                put(oldMost[slot], oldLeast[slot], oldOrdinals[slot] - 1);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostSigBits = new long[capacity];
+        leastSigBits = new long[capacity];
+        ordinals = new byte[capacity];
+        size = 0;
+        resizeThreshold = capacity * 3 / 4;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < entries) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int indexFor(long msb, long lsb, int mask) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,282 @@
+package com.rednetty.poll;
+
+import com.rednetty.PollPlugin;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind pipeline for votes. Votes are applied to the in-memory poll by the
+ * caller and queued here; a background worker drains the queue and appends them to
+ * storage in batches. With a {@link VoteJournal}, every queued vote is journaled first
+ * and released from the journal once storage has it.
+ */
+public class VoteWriteQueue {
+    private static final long POLL_TIMEOUT_MS = 250;
+    private static final long RETRY_BACKOFF_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private final PollStorage storage;
+    private final VoteJournal journal;
+    private final BlockingQueue<PendingVote> queue;
+    // Votes of failed writes, retried ahead of the queue. Never full, so a failed vote is not dropped; worker thread only
+    private final Deque<PendingVote> retries = new ArrayDeque<>();
+    // Makes the capacity check, journal append and offer one step, so a journaled vote is never rejected
+    private final Object submitLock = new Object();
+    private final int capacity;
+    private final int maxBatchSize;
+    private Thread worker;
+    private volatile boolean running = false;
+
+    // Metrics
+    private final AtomicLong enqueuedVotes = new AtomicLong();
+    private final AtomicLong rejectedVotes = new AtomicLong();
+    private final AtomicLong flushedVotes = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile int retryingVotes = 0;
+    private volatile long lastFlushNanos = 0;
+    private volatile long maxFlushNanos = 0;
+
+    /**
+     * @param journal journal to record votes in until they are stored, or null
+     */
+    public VoteWriteQueue(PollStorage storage, VoteJournal journal, int capacity, int maxBatchSize) {
+        this.storage = storage;
+        this.journal = journal;
+        this.capacity = Math.max(1, capacity);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        worker = new Thread(this::runWorker, "PollPlugin-VoteWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queues a vote that has already been applied to the poll.
+     *
+     * @return the vote's journal sequence number, 0 if it was not journaled, or -1 if
+     * the queue is full and the vote was not accepted
+     */
+    public long submit(Poll poll, UUID playerUUID, String option) {
+        if (!running || poll == null || playerUUID == null) {
+            return -1;
+        }
+
+        int optionIndex = poll.getOptions().indexOf(option);
+        if (optionIndex < 0) {
+            return -1;
+        }
+
+        synchronized (submitLock) {
+            if (queue.remainingCapacity() == 0) {
+                rejectedVotes.incrementAndGet();
+                return -1;
+            }
+
+            long sequence = 0;
+            if (journal != null) {
+                try {
+                    sequence = journal.append(poll.getPollUUID(), playerUUID, option, optionIndex);
+                } catch (IOException e) {
+                    // Still stored through the queue, only not safe from a crash before the flush
+                    PollPlugin.getInstance().getLogger().warning("Failed to journal vote on poll " + poll.getPollUUID() + ": " + e.getMessage());
+                }
+            }
+
+            // Every other offer also holds the lock, so the capacity checked above is still there
+            queue.offer(new PendingVote(poll, playerUUID, option, optionIndex, sequence));
+            enqueuedVotes.incrementAndGet();
+            return sequence;
+        }
+    }
+
+    private void runWorker() {
+        List<PendingVote> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty() || !retries.isEmpty()) {
+            try {
+                PendingVote first = retries.isEmpty() ? queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS) : retries.poll();
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                while (batch.size() < maxBatchSize && !retries.isEmpty()) {
+                    batch.add(retries.poll());
+                }
+                retryingVotes = retries.size();
+                queue.drainTo(batch, maxBatchSize - batch.size());
+
+                if (!flush(batch) && running) {
+                    Thread.sleep(RETRY_BACKOFF_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                PollPlugin.getInstance().getLogger().warning("Error in vote writer: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Persists a batch of votes as appends in a single bulk write. Polls whose v1
+     * documents could not take an append are written in full instead.
+     *
+     * @return true if every vote in the batch was written
+     */
+    private boolean flush(List<PendingVote> batch) {
+        long start = System.nanoTime();
+
+        List<VoteRecord> records = new ArrayList<>(batch.size());
+        for (PendingVote vote : batch) {
+            records.add(new VoteRecord(vote.poll.getPollUUID(), vote.playerUUID, vote.option, vote.optionIndex));
+        }
+
+        boolean allWritten = true;
+        Map<UUID, AppendOutcome> outcomes = storage.appendVotes(records);
+        if (outcomes == null) {
+            failedWrites.incrementAndGet();
+            allWritten = false;
+            requeue(batch);
+        } else {
+            Map<UUID, List<PendingVote>> byPoll = new LinkedHashMap<>();
+            for (PendingVote vote : batch) {
+                byPoll.computeIfAbsent(vote.poll.getPollUUID(), id -> new ArrayList<>()).add(vote);
+            }
+
+            for (Map.Entry<UUID, List<PendingVote>> entry : byPoll.entrySet()) {
+                List<PendingVote> votes = entry.getValue();
+                AppendOutcome outcome = outcomes.get(entry.getKey());
+                // Only v1 documents need one full write, which also migrates them to v2
+                if (outcome == AppendOutcome.FAILED
+                        || outcome == AppendOutcome.NEEDS_FULL_WRITE && !storage.updatePoll(votes.get(0).poll)) {
+                    failedWrites.incrementAndGet();
+                    allWritten = false;
+                    requeue(votes);
+                    continue;
+                }
+
+                // Stored, or the poll was deleted meanwhile and its votes went with it
+                flushedVotes.addAndGet(votes.size());
+                release(votes);
+            }
+        }
+
+        recordFlush(System.nanoTime() - start);
+        return allWritten;
+    }
+
+    private void release(List<PendingVote> votes) {
+        if (journal == null) {
+            return;
+        }
+        for (PendingVote vote : votes) {
+            if (vote.journalSequence > 0) {
+                journal.release(vote.journalSequence);
+            }
+        }
+    }
+
+    private void requeue(List<PendingVote> votes) {
+        if (!running) {
+            PollPlugin.getInstance().getLogger().warning("Dropping " + votes.size() + " unsaved votes during shutdown"
+                    + (journal != null ? ", they stay in the vote journal" : ""));
+            return;
+        }
+
+        // Not put back in the queue, which may have filled up meanwhile. Batches take retries first,
+        // so at most one batch of votes is ever waiting here
+        retries.addAll(votes);
+        retryingVotes = retries.size();
+    }
+
+    private void recordFlush(long nanos) {
+        flushCount.incrementAndGet();
+        totalFlushNanos.addAndGet(nanos);
+        lastFlushNanos = nanos;
+        if (nanos > maxFlushNanos) {
+            maxFlushNanos = nanos;
+        }
+    }
+
+    /**
+     * Stops the worker after flushing everything that is still queued.
+     */
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = worker;
+            worker = null;
+        }
+
+        try {
+            if (thread != null) {
+                thread.join(SHUTDOWN_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!queue.isEmpty()) {
+            PollPlugin.getInstance().getLogger().warning("Vote writer did not finish in time, " + queue.size() + " votes were not saved");
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public Map<String, Object> getStatistics() {
+        long flushes = flushCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", capacity);
+        stats.put("retryingVotes", retryingVotes);
+        stats.put("enqueuedVotes", enqueuedVotes.get());
+        stats.put("rejectedVotes", rejectedVotes.get());
+        stats.put("flushedVotes", flushedVotes.get());
+        stats.put("failedWrites", failedWrites.get());
+        stats.put("flushes", flushes);
+        stats.put("lastFlushMs", lastFlushNanos / 1_000_000.0);
+        stats.put("avgFlushMs", flushes > 0 ? totalFlushNanos.get() / (double) flushes / 1_000_000.0 : 0.0);
+        stats.put("maxFlushMs", maxFlushNanos / 1_000_000.0);
+        return stats;
+    }
+
+    private static final class PendingVote {
+        private final Poll poll;
+        private final UUID playerUUID;
+        private final String option;
+        private final int optionIndex;
+        private final long journalSequence;
+
+        private PendingVote(Poll poll, UUID playerUUID, String option, int optionIndex, long journalSequence) {
+            this.poll = poll;
+            this.playerUUID = playerUUID;
+            this.option = option;
+            this.optionIndex = optionIndex;
+            this.journalSequence = journalSequence;
+        }
+    }
+}